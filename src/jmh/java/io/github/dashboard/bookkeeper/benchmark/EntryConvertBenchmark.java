@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.dashboard.bookkeeper.decode.EntryDecoder;
+import io.github.dashboard.bookkeeper.decode.HexDecoder;
+import io.github.dashboard.bookkeeper.decode.Utf8Decoder;
+import io.github.dashboard.bookkeeper.module.DecodeOptions;
+import io.github.dashboard.bookkeeper.module.GetLedgerEntryResp;
+import io.github.dashboard.bookkeeper.util.BkUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BkUtil#convert} of a pooled direct entry buffer, as handed out by the BookKeeper client, and the Jackson
+ * serialization of the resulting {@link GetLedgerEntryResp}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntryConvertBenchmark {
+
+    @Param({"128", "65536"})
+    int size;
+
+    @Param({Utf8Decoder.COMPONENT, "Hex"})
+    String decoderName;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final DecodeOptions options = new DecodeOptions();
+
+    private EntryDecoder decoder;
+
+    private ByteBuf payload;
+
+    private GetLedgerEntryResp resp;
+
+    @Setup
+    public void setup() throws Exception {
+        decoder = Utf8Decoder.COMPONENT.equals(decoderName) ? new Utf8Decoder() : new HexDecoder();
+        payload = PooledByteBufAllocator.DEFAULT.directBuffer(size);
+        payload.writeBytes(Payloads.text(size, size));
+        resp = convert();
+    }
+
+    @TearDown
+    public void tearDown() {
+        payload.release();
+    }
+
+    @Benchmark
+    public GetLedgerEntryResp convert() throws Exception {
+        return BkUtil.convert(1L, 42L, payload, decoder, options);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(resp);
+    }
+
+    @Benchmark
+    public byte[] convertAndSerialize() throws Exception {
+        return objectMapper.writeValueAsBytes(convert());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.benchmark;
+
+import io.github.dashboard.bookkeeper.util.HexUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link HexUtil} with the StringBuilder / parseInt implementation it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HexUtilBenchmark {
+
+    private static final String LEGACY_HEX = "0123456789abcdef";
+
+    @Param({"64", "1024", "65536"})
+    int size;
+
+    private byte[] bytes;
+
+    private String hex;
+
+    private ByteBuf directSrc;
+
+    private ByteBuf directDst;
+
+    @Setup
+    public void setup() {
+        bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        hex = HexUtil.bytes2hex(bytes);
+        directSrc = PooledByteBufAllocator.DEFAULT.directBuffer(size);
+        directSrc.writeBytes(bytes);
+        directDst = PooledByteBufAllocator.DEFAULT.directBuffer(HexUtil.dumpLength(size));
+    }
+
+    @TearDown
+    public void tearDown() {
+        directSrc.release();
+        directDst.release();
+    }
+
+    @Benchmark
+    public String legacyBytes2hex() {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(LEGACY_HEX.charAt((b >> 4) & 0x0f));
+            sb.append(LEGACY_HEX.charAt(b & 0x0f));
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public String bytes2hex() {
+        return HexUtil.bytes2hex(bytes);
+    }
+
+    @Benchmark
+    public String bytes2hexDirect() {
+        return HexUtil.bytes2hex(directSrc);
+    }
+
+    @Benchmark
+    public ByteBuf encodeDirect() {
+        directDst.clear();
+        HexUtil.encode(directSrc, directDst);
+        return directDst;
+    }
+
+    @Benchmark
+    public ByteBuf dumpDirect() {
+        directDst.clear();
+        HexUtil.dump(directSrc, 0, directDst);
+        return directDst;
+    }
+
+    @Benchmark
+    public byte[] legacyHexToByteArray() {
+        byte[] result = new byte[hex.length() / 2];
+        int j = 0;
+        for (int i = 0; i < hex.length(); i += 2) {
+            result[j] = (byte) Integer.parseInt(hex.substring(i, i + 2), 16);
+            j++;
+        }
+        return result;
+    }
+
+    @Benchmark
+    public byte[] hexToByteArray() {
+        return HexUtil.hexToByteArray(hex);
+    }
+}
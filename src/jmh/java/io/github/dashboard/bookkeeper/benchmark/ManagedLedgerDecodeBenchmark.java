@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.benchmark;
+
+import io.github.dashboard.bookkeeper.decode.ManagedCursorInfoDecoder;
+import io.github.dashboard.bookkeeper.decode.ManagedLedgerInfoDecoder;
+import io.github.dashboard.bookkeeper.module.DecodeOptions;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and {@code toString} of the managed ledger and cursor metadata stored by Pulsar brokers, from a topic
+ * with a handful of ledgers to a long lived one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ManagedLedgerDecodeBenchmark {
+
+    @Param({"10", "1000"})
+    int count;
+
+    private final ManagedLedgerInfoDecoder ledgerInfoDecoder = new ManagedLedgerInfoDecoder();
+
+    private final ManagedCursorInfoDecoder cursorInfoDecoder = new ManagedCursorInfoDecoder();
+
+    private final DecodeOptions options = new DecodeOptions();
+
+    private ByteBuf ledgerInfo;
+
+    private ByteBuf cursorInfo;
+
+    @Setup
+    public void setup() {
+        ledgerInfo = PooledByteBufAllocator.DEFAULT.directBuffer();
+        ledgerInfo.writeBytes(Payloads.managedLedgerInfo(count));
+        cursorInfo = PooledByteBufAllocator.DEFAULT.directBuffer();
+        cursorInfo.writeBytes(Payloads.managedCursorInfo(count));
+    }
+
+    @TearDown
+    public void tearDown() {
+        ledgerInfo.release();
+        cursorInfo.release();
+    }
+
+    @Benchmark
+    public Object managedLedgerInfo() throws Exception {
+        return ledgerInfoDecoder.decode(ledgerInfo, options);
+    }
+
+    @Benchmark
+    public Object managedCursorInfo() throws Exception {
+        return cursorInfoDecoder.decode(cursorInfo, options);
+    }
+}
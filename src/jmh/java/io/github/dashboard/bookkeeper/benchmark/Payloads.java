@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.benchmark;
+
+import io.airlift.compress.lz4.Lz4Compressor;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32C;
+
+/**
+ * Synthetic entries shaped like the ones the dashboard reads from real clusters. Protobufs are written by hand, so
+ * the fixtures do not depend on the generated classes they are decoded with.
+ */
+final class Payloads {
+
+    private static final String WORDS = "order customer payment shipped pending id amount currency EUR USD 42 true ";
+
+    private Payloads() {
+    }
+
+    /**
+     * JSON-ish ASCII text, the typical payload of application topics.
+     */
+    static byte[] text(int size, long seed) {
+        Random random = new Random(seed);
+        byte[] words = WORDS.getBytes(StandardCharsets.US_ASCII);
+        byte[] text = new byte[size];
+        for (int i = 0; i < size; i++) {
+            text[i] = words[random.nextInt(words.length)];
+        }
+        return text;
+    }
+
+    /**
+     * A managed ledger of {@code ledgers} ledgers with a terminated position and a couple of properties.
+     */
+    static byte[] managedLedgerInfo(int ledgers) {
+        Proto info = new Proto();
+        for (int i = 0; i < ledgers; i++) {
+            info.message(1, new Proto()
+                    .varint(1, 1_000_000L + i)
+                    .varint(2, 50_000)
+                    .varint(3, 64L << 20)
+                    .varint(4, 1_670_000_000_000L + i * 60_000L));
+        }
+        info.message(2, position(1_000_000L + ledgers - 1, 49_999));
+        info.message(3, new Proto().string(1, "pulsar.managed-ledger.owner").string(2, "broker-1:6650"));
+        return info.toByteArray();
+    }
+
+    /**
+     * A cursor with {@code ranges} individually deleted ranges, the shape of a subscription acking out of order.
+     */
+    static byte[] managedCursorInfo(int ranges) {
+        Proto info = new Proto()
+                .varint(1, 2_000_000L)
+                .varint(2, 1_000_000L)
+                .varint(3, 10);
+        for (int i = 0; i < ranges; i++) {
+            info.message(4, new Proto()
+                    .message(1, position(1_000_000L, 20L + i * 3L))
+                    .message(2, position(1_000_000L, 21L + i * 3L)));
+        }
+        info.varint(6, 1_670_000_000_000L);
+        return info.toByteArray();
+    }
+
+    /**
+     * A Pulsar data entry with broker entry metadata and checksum, batching {@code messages} messages of
+     * {@code messageSize} bytes, compressed with LZ4 when asked to.
+     */
+    static byte[] pulsarEntry(int messages, int messageSize, boolean lz4) {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        for (int i = 0; i < messages; i++) {
+            byte[] single = new Proto()
+                    .message(1, new Proto().string(1, "trace-id").string(2, Long.toHexString(i * 7919L)))
+                    .string(2, "key-" + (i % 16))
+                    .varint(3, messageSize)
+                    .varint(8, i)
+                    .toByteArray();
+            writeInt(batch, single.length);
+            batch.writeBytes(single);
+            batch.writeBytes(text(messageSize, i));
+        }
+        byte[] payload = batch.toByteArray();
+        int uncompressedSize = payload.length;
+        if (lz4) {
+            Lz4Compressor compressor = new Lz4Compressor();
+            byte[] compressed = new byte[compressor.maxCompressedLength(payload.length)];
+            int length = compressor.compress(payload, 0, payload.length, compressed, 0, compressed.length);
+            payload = Arrays.copyOf(compressed, length);
+        }
+        Proto metadata = new Proto()
+                .string(1, "standalone-0-42")
+                .varint(2, 1234)
+                .varint(3, 1_670_000_000_000L)
+                .message(4, new Proto().string(1, "source").string(2, "benchmark"))
+                .varint(8, lz4 ? 1 : 0)
+                .varint(9, uncompressedSize)
+                .varint(11, messages);
+        byte[] metadataBytes = metadata.toByteArray();
+
+        ByteArrayOutputStream checksummed = new ByteArrayOutputStream();
+        writeInt(checksummed, metadataBytes.length);
+        checksummed.writeBytes(metadataBytes);
+        checksummed.writeBytes(payload);
+        byte[] checksummedBytes = checksummed.toByteArray();
+        CRC32C crc = new CRC32C();
+        crc.update(checksummedBytes);
+
+        byte[] brokerEntryMetadata = new Proto().varint(1, 1_670_000_000_001L).varint(2, 99_999).toByteArray();
+        ByteArrayOutputStream entry = new ByteArrayOutputStream();
+        writeShort(entry, 0x0e02);
+        writeInt(entry, brokerEntryMetadata.length);
+        entry.writeBytes(brokerEntryMetadata);
+        writeShort(entry, 0x0e01);
+        writeInt(entry, (int) crc.getValue());
+        entry.writeBytes(checksummedBytes);
+        return entry.toByteArray();
+    }
+
+    private static Proto position(long ledgerId, long entryId) {
+        return new Proto().varint(1, ledgerId).varint(2, entryId);
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.writeBytes(ByteBuffer.allocate(2).putShort((short) value).array());
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.writeBytes(ByteBuffer.allocate(4).putInt(value).array());
+    }
+
+    /**
+     * Minimal protobuf wire format writer.
+     */
+    static final class Proto {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Proto varint(int field, long value) {
+            writeVarint((long) field << 3);
+            writeVarint(value);
+            return this;
+        }
+
+        Proto string(int field, String value) {
+            return bytes(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Proto message(int field, Proto message) {
+            return bytes(field, message.toByteArray());
+        }
+
+        Proto bytes(int field, byte[] value) {
+            writeVarint(((long) field << 3) | 2);
+            writeVarint(value.length);
+            out.writeBytes(value);
+            return this;
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+
+        private void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+    }
+
+}
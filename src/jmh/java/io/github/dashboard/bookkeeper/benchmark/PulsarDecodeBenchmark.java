@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.dashboard.bookkeeper.decode.PulsarMessageBatchDecoder;
+import io.github.dashboard.bookkeeper.decode.PulsarMessageMetadataDecoder;
+import io.github.dashboard.bookkeeper.module.DecodeOptions;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of Pulsar topic data entries: headers only, and full batches with decompression and message splitting.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PulsarDecodeBenchmark {
+
+    @Param({"1", "100"})
+    int messages;
+
+    @Param({"256"})
+    int messageSize;
+
+    @Param({"false", "true"})
+    boolean lz4;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final PulsarMessageMetadataDecoder metadataDecoder = new PulsarMessageMetadataDecoder();
+
+    private final PulsarMessageBatchDecoder batchDecoder = new PulsarMessageBatchDecoder();
+
+    private final DecodeOptions headersOnly = new DecodeOptions();
+
+    private final DecodeOptions withPayload = new DecodeOptions();
+
+    private ByteBuf entry;
+
+    @Setup
+    public void setup() {
+        headersOnly.setPayload(false);
+        withPayload.setMaxPayloadBytes(Integer.MAX_VALUE);
+        entry = PooledByteBufAllocator.DEFAULT.directBuffer();
+        entry.writeBytes(Payloads.pulsarEntry(messages, messageSize, lz4));
+    }
+
+    @TearDown
+    public void tearDown() {
+        entry.release();
+    }
+
+    @Benchmark
+    public Object metadata() throws Exception {
+        return metadataDecoder.decode(entry, withPayload);
+    }
+
+    @Benchmark
+    public Object batchHeaders() throws Exception {
+        return batchDecoder.decode(entry, headersOnly);
+    }
+
+    @Benchmark
+    public Object batch() throws Exception {
+        return batchDecoder.decode(entry, withPayload);
+    }
+
+    @Benchmark
+    public byte[] batchAndSerialize() throws Exception {
+        return objectMapper.writeValueAsBytes(batchDecoder.decode(entry, withPayload));
+    }
+}
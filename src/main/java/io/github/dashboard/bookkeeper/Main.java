@@ -19,61 +19,82 @@
 
 package io.github.dashboard.bookkeeper;
 
+import io.github.dashboard.bookkeeper.cluster.ClusterRegistry;
 import io.github.dashboard.bookkeeper.config.BookkeeperConfig;
-import org.apache.bookkeeper.client.BookKeeper;
+import io.github.dashboard.bookkeeper.web.StaticAssetHandler;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import org.apache.bookkeeper.conf.ClientConfiguration;
-import org.apache.zookeeper.ZooKeeper;
+import org.apache.bookkeeper.stats.prometheus.PrometheusMetricsProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.web.reactive.function.server.RequestPredicates;
 import org.springframework.web.reactive.function.server.RouterFunction;
-import org.springframework.web.reactive.function.server.RouterFunctions;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
-import java.io.File;
 import java.util.concurrent.TimeUnit;
 
-@SpringBootApplication
+/**
+ * The metrics and service packages are left out of the scan, {@link ClusterRegistry} instantiates them per cluster.
+ */
+@SpringBootApplication(scanBasePackages = {
+        "io.github.dashboard.bookkeeper.cluster",
+        "io.github.dashboard.bookkeeper.config",
+        "io.github.dashboard.bookkeeper.controller",
+        "io.github.dashboard.bookkeeper.decode",
+        "io.github.dashboard.bookkeeper.health",
+        "io.github.dashboard.bookkeeper.web",
+})
 public class Main {
 
-    private final String staticPath;
+    /**
+     * Serves the portal, a route of its own runs before the annotated controllers and yields for unknown paths.
+     */
+    @Bean
+    RouterFunction<ServerResponse> staticAssetRouter(@Autowired StaticAssetHandler staticAssetHandler) {
+        return staticAssetHandler::route;
+    }
 
-    {
-        String aux = System.getenv("STATIC_PATH");
-        if (aux == null) {
-            staticPath = "";
-        } else if (aux.endsWith(File.separator)) {
-            staticPath = aux;
-        } else {
-            staticPath = aux + File.separator;
-        }
+    /**
+     * Collects the stats of the BookKeeper client, they are exposed by the metrics endpoint instead of the
+     * provider's own http server.
+     */
+    @Bean(destroyMethod = "stop")
+    PrometheusMetricsProvider bookkeeperStatsProvider() {
+        ClientConfiguration conf = new ClientConfiguration();
+        conf.setProperty("prometheusStatsHttpEnable", false);
+        PrometheusMetricsProvider provider = new PrometheusMetricsProvider();
+        provider.start(conf);
+        return provider;
     }
 
-    @Bean
-    RouterFunction<ServerResponse> homePageRouter() {
-        return RouterFunctions.route(RequestPredicates.GET("/"),
-                request -> ServerResponse.ok().bodyValue(new FileSystemResource(staticPath + "index.html")));
+    /**
+     * Netty event loops shared by the BookKeeper clients of all clusters.
+     */
+    @Bean(destroyMethod = "shutdownGracefully")
+    EventLoopGroup bookkeeperEventLoopGroup(@Autowired BookkeeperConfig bookkeeperConfig) {
+        return new NioEventLoopGroup(bookkeeperConfig.clientIoThreads, new DefaultThreadFactory("bookkeeper-io"));
     }
 
-    @Bean
-    RouterFunction<ServerResponse> staticResourceRouter() {
-        return RouterFunctions.resources("/**", new FileSystemResource(staticPath));
+    /**
+     * Request timeout timer shared by the BookKeeper clients of all clusters.
+     */
+    @Bean(destroyMethod = "stop")
+    HashedWheelTimer bookkeeperRequestTimer() {
+        ClientConfiguration conf = new ClientConfiguration();
+        return new HashedWheelTimer(new DefaultThreadFactory("bookkeeper-timer"),
+                conf.getTimeoutTimerTickDurationMs(), TimeUnit.MILLISECONDS, conf.getTimeoutTimerNumTicks());
     }
 
-    @Bean
-    BookKeeper createBookKeeper(@Autowired BookkeeperConfig bookkeeperConfig) throws Exception {
-        ClientConfiguration clientConfiguration = new ClientConfiguration();
-        clientConfiguration.setMetadataServiceUri(bookkeeperConfig.connectPrefix
-                + "://" + bookkeeperConfig.servers + "/ledgers");
-        clientConfiguration.setZkTimeout(30_000);
-        ZooKeeper zooKeeper = new ZooKeeper(bookkeeperConfig.servers, 30_000, null);
-        while (zooKeeper.getState() != ZooKeeper.States.CONNECTED) {
-            TimeUnit.MILLISECONDS.sleep(100);
-        }
-        return new BookKeeper(clientConfiguration, zooKeeper);
+    @Bean(destroyMethod = "dispose")
+    Scheduler bookkeeperScheduler(@Autowired BookkeeperConfig bookkeeperConfig) {
+        return Schedulers.newBoundedElastic(bookkeeperConfig.blockingThreads,
+                bookkeeperConfig.blockingQueueSize, "bookkeeper-blocking");
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.cluster;
+
+import io.github.dashboard.bookkeeper.metrics.BookkeeperMetrics;
+import io.github.dashboard.bookkeeper.service.BookkeeperClientService;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * The services of one cluster. They live in a child application context of their own, so every cluster has its own
+ * client, handles and caches, while the configuration, schedulers, decoders and client pools come from the parent.
+ */
+public class BookkeeperCluster {
+
+    /**
+     * packages instantiated per cluster, they are left out of the application's own component scan.
+     */
+    static final String[] PACKAGES = {
+            "io.github.dashboard.bookkeeper.metrics",
+            "io.github.dashboard.bookkeeper.service",
+    };
+
+    private final ClusterConfig config;
+
+    private final AnnotationConfigApplicationContext context;
+
+    private volatile long lastAccessMillis;
+
+    BookkeeperCluster(ClusterConfig config, ApplicationContext parent) {
+        this.config = config;
+        this.context = new AnnotationConfigApplicationContext();
+        context.setParent(parent);
+        context.setId(parent.getId() + "-" + config.name);
+        context.getBeanFactory().registerSingleton("clusterConfig", config);
+        context.scan(PACKAGES);
+        try {
+            context.refresh();
+        } catch (RuntimeException e) {
+            context.close();
+            throw e;
+        }
+        touch();
+    }
+
+    public String getName() {
+        return config.name;
+    }
+
+    public <T> T service(Class<T> type) {
+        touch();
+        return context.getBean(type);
+    }
+
+    public boolean isConnected() {
+        return context.getBean(BookkeeperClientService.class).isConnected();
+    }
+
+    /**
+     * Whether a BookKeeper operation is in flight, tails keep a long poll in flight all the time.
+     */
+    boolean isBusy() {
+        return context.getBean(BookkeeperMetrics.class).inFlight() > 0;
+    }
+
+    long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    void touch() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    void close() {
+        context.close();
+    }
+
+}
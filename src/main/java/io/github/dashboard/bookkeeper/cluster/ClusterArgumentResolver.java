@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.cluster;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.BindingContext;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.result.method.HandlerMethodArgumentResolver;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Resolves a {@link BookkeeperCluster} handler argument from the {@code cluster} path variable, routes without it
+ * address the default cluster. Opening a cluster refreshes its application context, that runs on the blocking
+ * scheduler instead of the event loop.
+ */
+public class ClusterArgumentResolver implements HandlerMethodArgumentResolver {
+
+    public static final String CLUSTER_VARIABLE = "cluster";
+
+    private final ClusterRegistry clusterRegistry;
+
+    private final Scheduler bookkeeperScheduler;
+
+    public ClusterArgumentResolver(ClusterRegistry clusterRegistry, Scheduler bookkeeperScheduler) {
+        this.clusterRegistry = clusterRegistry;
+        this.bookkeeperScheduler = bookkeeperScheduler;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return BookkeeperCluster.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Mono<Object> resolveArgument(MethodParameter parameter, BindingContext bindingContext,
+                                        ServerWebExchange exchange) {
+        Map<String, String> variables = exchange.getAttributeOrDefault(
+                HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Collections.emptyMap());
+        String name = variables.getOrDefault(CLUSTER_VARIABLE, clusterRegistry.getDefaultName());
+        if (!clusterRegistry.isConfigured(name)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown cluster " + name));
+        }
+        if (clusterRegistry.find(name) != null) {
+            return Mono.just(clusterRegistry.get(name));
+        }
+        return Mono.<Object>fromCallable(() -> clusterRegistry.get(name)).subscribeOn(bookkeeperScheduler);
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.cluster;
+
+/**
+ * Connection settings of one BookKeeper cluster.
+ */
+public class ClusterConfig {
+
+    public final String name;
+
+    public final String servers;
+
+    public final String ledgersRootPath;
+
+    public ClusterConfig(String name, String servers, String ledgersRootPath) {
+        this.name = name;
+        this.servers = servers;
+        this.ledgersRootPath = ledgersRootPath;
+    }
+
+    /**
+     * Parses {@code name=servers[/ledgersRootPath]}, the servers being a ZooKeeper connect string.
+     */
+    public static ClusterConfig parse(String value, String defaultLedgersRootPath) {
+        int eq = value.indexOf('=');
+        if (eq <= 0 || eq == value.length() - 1) {
+            throw new IllegalArgumentException("cluster must be name=servers[/ledgersRootPath], got " + value);
+        }
+        String name = value.substring(0, eq).trim();
+        String address = value.substring(eq + 1).trim();
+        int slash = address.indexOf('/');
+        if (slash < 0) {
+            return new ClusterConfig(name, address, defaultLedgersRootPath);
+        }
+        return new ClusterConfig(name, address.substring(0, slash), address.substring(slash));
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.cluster;
+
+import io.github.dashboard.bookkeeper.config.BookkeeperConfig;
+import io.github.dashboard.bookkeeper.module.ClusterResp;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The configured clusters, opened on first use. The default cluster is opened at startup and kept open, the other
+ * ones are closed once they were neither used nor busy for {@link BookkeeperConfig#clusterIdleSeconds}.
+ */
+@Slf4j
+@Component
+public class ClusterRegistry {
+
+    private final BookkeeperConfig config;
+
+    private final ApplicationContext applicationContext;
+
+    private final Scheduler bookkeeperScheduler;
+
+    private final Map<String, ClusterConfig> clusterConfigs;
+
+    private final Map<String, BookkeeperCluster> clusters = new ConcurrentHashMap<>();
+
+    private Disposable idleTask;
+
+    public ClusterRegistry(@Autowired BookkeeperConfig config,
+                           @Autowired ApplicationContext applicationContext,
+                           @Autowired Scheduler bookkeeperScheduler) {
+        this.config = config;
+        this.applicationContext = applicationContext;
+        this.bookkeeperScheduler = bookkeeperScheduler;
+        Map<String, ClusterConfig> configs = new LinkedHashMap<>();
+        configs.put(config.defaultCluster,
+                new ClusterConfig(config.defaultCluster, config.servers, config.ledgersRootPath));
+        for (String value : config.clusters.split(";")) {
+            if (value.isBlank()) {
+                continue;
+            }
+            ClusterConfig clusterConfig = ClusterConfig.parse(value, config.ledgersRootPath);
+            if (configs.putIfAbsent(clusterConfig.name, clusterConfig) != null) {
+                throw new IllegalArgumentException("duplicate cluster " + clusterConfig.name);
+            }
+        }
+        this.clusterConfigs = Collections.unmodifiableMap(configs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        get(null);
+        idleTask = Flux.interval(Duration.ofSeconds(Math.max(1, config.clusterIdleSeconds / 10)), bookkeeperScheduler)
+                .subscribe(tick -> closeIdle());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (idleTask != null) {
+            idleTask.dispose();
+        }
+        clusters.values().forEach(BookkeeperCluster::close);
+        clusters.clear();
+    }
+
+    public List<ClusterResp> list() {
+        List<ClusterResp> result = new ArrayList<>(clusterConfigs.size());
+        for (ClusterConfig clusterConfig : clusterConfigs.values()) {
+            BookkeeperCluster cluster = clusters.get(clusterConfig.name);
+            ClusterResp resp = new ClusterResp();
+            resp.setName(clusterConfig.name);
+            resp.setServers(clusterConfig.servers);
+            resp.setLedgersRootPath(clusterConfig.ledgersRootPath);
+            resp.setOpen(cluster != null);
+            resp.setConnected(cluster != null && cluster.isConnected());
+            result.add(resp);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the named cluster, or the default one for a null name, opening it if needed.
+     */
+    public BookkeeperCluster get(@Nullable String name) {
+        String clusterName = name == null ? config.defaultCluster : name;
+        ClusterConfig clusterConfig = clusterConfigs.get(clusterName);
+        if (clusterConfig == null) {
+            throw new IllegalArgumentException("Unknown cluster " + clusterName);
+        }
+        BookkeeperCluster cluster = clusters.computeIfAbsent(clusterName, key -> {
+            log.info("open cluster {}, zookeeper {}", key, clusterConfig.servers);
+            return new BookkeeperCluster(clusterConfig, applicationContext);
+        });
+        cluster.touch();
+        return cluster;
+    }
+
+    public String getDefaultName() {
+        return config.defaultCluster;
+    }
+
+    public boolean isConfigured(String name) {
+        return clusterConfigs.containsKey(name);
+    }
+
+    /**
+     * Returns the cluster if it is open, without opening it.
+     */
+    public @Nullable BookkeeperCluster find(String name) {
+        return clusters.get(name);
+    }
+
+    public Collection<BookkeeperCluster> openClusters() {
+        return clusters.values();
+    }
+
+    private void closeIdle() {
+        long idleBefore = System.currentTimeMillis() - config.clusterIdleSeconds * 1000L;
+        clusters.forEach((name, cluster) -> {
+            if (name.equals(config.defaultCluster) || cluster.getLastAccessMillis() > idleBefore || cluster.isBusy()) {
+                return;
+            }
+            if (clusters.remove(name, cluster)) {
+                log.info("close idle cluster {}", name);
+                cluster.close();
+            }
+        });
+    }
+
+}
@@ -20,6 +20,7 @@
 package io.github.dashboard.bookkeeper.config;
 
 import org.apache.bookkeeper.client.BookKeeper;
+import org.apache.bookkeeper.client.api.DigestType;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
@@ -34,6 +35,9 @@ public class BookkeeperConfig {
     @Value("${BOOKKEEPER_ZOOKEEPER_SERVERS:localhost:2181}")
     public String servers;
 
+    @Value("${BOOKKEEPER_LEDGERS_ROOT_PATH:/ledgers}")
+    public String ledgersRootPath;
+
     @Value("${BOOKKEEPER_DIGESTTYPE:CRC32}")
     public BookKeeper.DigestType digestType;
 
@@ -49,7 +53,164 @@ public class BookkeeperConfig {
     @Value("${BOOKKEEPER_ACK_QUORUM_SIZE:1}")
     public int ackQuorumSize;
 
+    @Value("${BOOKKEEPER_READ_BATCH_SIZE:100}")
+    public int readBatchSize;
+
+    @Value("${BOOKKEEPER_READ_HANDLE_CACHE_SIZE:256}")
+    public int readHandleCacheSize;
+
+    @Value("${BOOKKEEPER_READ_HANDLE_IDLE_SECONDS:300}")
+    public int readHandleIdleSeconds;
+
+    @Value("${BOOKKEEPER_WRITE_HANDLE_MAX:128}")
+    public int writeHandleMax;
+
+    @Value("${BOOKKEEPER_WRITE_HANDLE_IDLE_SECONDS:600}")
+    public int writeHandleIdleSeconds;
+
+    @Value("${BOOKKEEPER_ADD_MAX_IN_FLIGHT:64}")
+    public int addMaxInFlight;
+
+    @Value("${BOOKKEEPER_DELETE_CONCURRENCY:16}")
+    public int deleteConcurrency;
+
+    @Value("${BOOKKEEPER_DELETE_OPS_PER_SECOND:100}")
+    public int deleteOpsPerSecond;
+
+    @Value("${BOOKKEEPER_JOB_RETENTION_SECONDS:3600}")
+    public int jobRetentionSeconds;
+
+    @Value("${BOOKKEEPER_LEDGER_PAGE_SIZE:1000}")
+    public int ledgerPageSize;
+
+    @Value("${BOOKKEEPER_LEDGER_INDEX_ENABLED:true}")
+    public boolean ledgerIndexEnabled;
+
+    @Value("${BOOKKEEPER_LEDGER_INDEX_WATCH:true}")
+    public boolean ledgerIndexWatch;
+
+    @Value("${BOOKKEEPER_LEDGER_INDEX_REFRESH_SECONDS:600}")
+    public int ledgerIndexRefreshSeconds;
+
+    @Value("${BOOKKEEPER_METADATA_CACHE_SIZE:10000}")
+    public int metadataCacheSize;
+
+    @Value("${BOOKKEEPER_METADATA_OPEN_TTL_SECONDS:10}")
+    public int metadataOpenTtlSeconds;
+
+    @Value("${BOOKKEEPER_METADATA_CLOSED_TTL_SECONDS:3600}")
+    public int metadataClosedTtlSeconds;
+
+    @Value("${BOOKKEEPER_METADATA_CONCURRENCY:32}")
+    public int metadataConcurrency;
+
+    @Value("${BOOKKEEPER_BLOCKING_THREADS:32}")
+    public int blockingThreads;
+
+    @Value("${BOOKKEEPER_BLOCKING_QUEUE_SIZE:10000}")
+    public int blockingQueueSize;
+
+    @Value("${BOOKKEEPER_DECODE_MAX_PAYLOAD_BYTES:1048576}")
+    public int decodeMaxPayloadBytes;
+
+    @Value("${BOOKKEEPER_SEARCH_PARALLELISM:4}")
+    public int searchParallelism;
+
+    @Value("${BOOKKEEPER_SEARCH_MAX_HITS:100}")
+    public int searchMaxHits;
+
+    @Value("${BOOKKEEPER_SEARCH_PROGRESS_INTERVAL_MS:1000}")
+    public int searchProgressIntervalMs;
+
+    @Value("${BOOKKEEPER_STATS_CACHE_SIZE:1000}")
+    public int statsCacheSize;
+
+    @Value("${BOOKKEEPER_STATS_PARALLELISM:4}")
+    public int statsParallelism;
+
+    @Value("${BOOKKEEPER_ENTRY_CACHE_ENABLED:true}")
+    public boolean entryCacheEnabled;
+
+    @Value("${BOOKKEEPER_ENTRY_CACHE_MAX_BYTES:67108864}")
+    public long entryCacheMaxBytes;
+
+    @Value("${BOOKKEEPER_ENTRY_CACHE_OFF_HEAP:false}")
+    public boolean entryCacheOffHeap;
+
+    @Value("${BOOKKEEPER_DECODED_ENTRY_CACHE_MAX_BYTES:67108864}")
+    public long decodedEntryCacheMaxBytes;
+
+    @Value("${BOOKKEEPER_READ_AHEAD_ENABLED:true}")
+    public boolean readAheadEnabled;
+
+    @Value("${BOOKKEEPER_READ_AHEAD_INITIAL_WINDOW:16}")
+    public int readAheadInitialWindow;
+
+    @Value("${BOOKKEEPER_READ_AHEAD_MAX_WINDOW:1024}")
+    public int readAheadMaxWindow;
+
+    @Value("${BOOKKEEPER_READ_AHEAD_MAX_BYTES:16777216}")
+    public long readAheadMaxBytes;
+
+    @Value("${BOOKKEEPER_READ_AHEAD_MAX_SESSIONS:1000}")
+    public int readAheadMaxSessions;
+
+    @Value("${BOOKKEEPER_READ_AHEAD_IDLE_SECONDS:60}")
+    public int readAheadIdleSeconds;
+
+    @Value("${BOOKKEEPER_TAIL_LONG_POLL_TIMEOUT_MS:10000}")
+    public long tailLongPollTimeoutMs;
+
+    @Value("${BOOKKEEPER_TAIL_BUFFER_SIZE:1024}")
+    public int tailBufferSize;
+
+    @Value("${BOOKKEEPER_TAIL_HEARTBEAT_SECONDS:15}")
+    public int tailHeartbeatSeconds;
+
+    @Value("${BOOKKEEPER_EXPORT_DIR:export}")
+    public String exportDir;
+
+    @Value("${BOOKKEEPER_EXPORT_SEGMENT_BYTES:4194304}")
+    public int exportSegmentBytes;
+
+    @Value("${BOOKKEEPER_EXPORT_PARALLELISM:4}")
+    public int exportParallelism;
+
+    @Value("${BOOKKEEPER_ZOOKEEPER_SESSION_TIMEOUT_MS:30000}")
+    public int zkSessionTimeoutMs;
+
+    @Value("${BOOKKEEPER_RECONNECT_INITIAL_BACKOFF_MS:1000}")
+    public long reconnectInitialBackoffMs;
+
+    @Value("${BOOKKEEPER_RECONNECT_MAX_BACKOFF_MS:60000}")
+    public long reconnectMaxBackoffMs;
+
+    @Value("${BOOKKEEPER_CONNECT_TIMEOUT_MS:10000}")
+    public long connectTimeoutMs;
+
+    @Value("${BOOKKEEPER_DEFAULT_CLUSTER:default}")
+    public String defaultCluster;
+
+    /**
+     * Additional clusters, {@code name=servers[/ledgersRootPath]} separated by semicolons.
+     */
+    @Value("${BOOKKEEPER_CLUSTERS:}")
+    public String clusters;
+
+    @Value("${BOOKKEEPER_CLUSTER_IDLE_SECONDS:1800}")
+    public int clusterIdleSeconds;
+
+    @Value("${BOOKKEEPER_CLIENT_IO_THREADS:4}")
+    public int clientIoThreads;
+
+    @Value("${BOOKKEEPER_CLIENT_WORKER_THREADS:2}")
+    public int clientWorkerThreads;
+
     public byte[] getPassword() {
         return password.getBytes(StandardCharsets.UTF_8);
     }
+
+    public DigestType getApiDigestType() {
+        return DigestType.valueOf(digestType.name());
+    }
 }
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.config;
+
+import io.github.dashboard.bookkeeper.cluster.ClusterArgumentResolver;
+import io.github.dashboard.bookkeeper.cluster.ClusterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+import reactor.core.scheduler.Scheduler;
+
+@Configuration
+public class ClusterWebConfiguration implements WebFluxConfigurer {
+
+    private final ClusterRegistry clusterRegistry;
+
+    private final Scheduler bookkeeperScheduler;
+
+    public ClusterWebConfiguration(@Autowired ClusterRegistry clusterRegistry,
+                                   @Autowired Scheduler bookkeeperScheduler) {
+        this.clusterRegistry = clusterRegistry;
+        this.bookkeeperScheduler = bookkeeperScheduler;
+    }
+
+    @Override
+    public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+        configurer.addCustomResolver(new ClusterArgumentResolver(clusterRegistry, bookkeeperScheduler));
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StaticConfig {
+
+    /**
+     * Directory of the dashboard portal, no static assets are served when empty.
+     */
+    @Value("${STATIC_PATH:}")
+    public String path;
+
+    /**
+     * Reload the assets when the directory changes, for portal development.
+     */
+    @Value("${STATIC_WATCH:false}")
+    public boolean watch;
+
+    @Value("${STATIC_GZIP_MIN_BYTES:1024}")
+    public int gzipMinBytes;
+
+    @Value("${STATIC_IMMUTABLE_MAX_AGE_SECONDS:31536000}")
+    public long immutableMaxAgeSeconds;
+
+}
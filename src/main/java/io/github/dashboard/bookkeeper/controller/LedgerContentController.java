@@ -19,128 +19,459 @@
 
 package io.github.dashboard.bookkeeper.controller;
 
+import io.github.dashboard.bookkeeper.cluster.BookkeeperCluster;
 import io.github.dashboard.bookkeeper.config.BookkeeperConfig;
+import io.github.dashboard.bookkeeper.decode.DecoderRegistry;
+import io.github.dashboard.bookkeeper.decode.EntryDecoder;
+import io.github.dashboard.bookkeeper.module.AddLedgerEntriesResp;
+import io.github.dashboard.bookkeeper.module.AddLedgerEntryReq;
+import io.github.dashboard.bookkeeper.module.DecodeOptions;
+import io.github.dashboard.bookkeeper.module.DecoderResp;
+import io.github.dashboard.bookkeeper.module.EntryEncoding;
 import io.github.dashboard.bookkeeper.module.GetLedgerEntryResp;
+import io.github.dashboard.bookkeeper.module.LedgerStatsResp;
 import io.github.dashboard.bookkeeper.module.PutLedgerEntryReq;
+import io.github.dashboard.bookkeeper.module.SearchEvent;
+import io.github.dashboard.bookkeeper.module.SearchMode;
+import io.github.dashboard.bookkeeper.search.EntryMatcher;
+import io.github.dashboard.bookkeeper.search.EntryMatchers;
 import io.github.dashboard.bookkeeper.service.LedgerHandleService;
+import io.github.dashboard.bookkeeper.service.LedgerReadService;
+import io.github.dashboard.bookkeeper.service.LedgerSearchService;
+import io.github.dashboard.bookkeeper.service.LedgerStatsService;
+import io.github.dashboard.bookkeeper.service.LedgerTailService;
+import io.github.dashboard.bookkeeper.service.LedgerWriteService;
 import io.github.dashboard.bookkeeper.util.BkUtil;
+import io.github.dashboard.bookkeeper.util.EntryFrameUtil;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.bookkeeper.client.BookKeeper;
-import org.apache.bookkeeper.client.LedgerEntry;
+import org.apache.bookkeeper.client.BKException;
 import org.apache.bookkeeper.client.LedgerHandle;
-import org.apache.bookkeeper.client.api.BKException;
+import org.apache.bookkeeper.client.api.ReadHandle;
+import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.Enumeration;
+import java.time.Duration;
 import java.util.List;
+import java.util.function.BiFunction;
 
 @Slf4j
 @RestController
-@RequestMapping("/api/bookkeeper")
+@RequestMapping({"/api/bookkeeper", "/api/bookkeeper/clusters/{cluster}"})
 public class LedgerContentController {
 
-    private final BookkeeperConfig config;
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
-    private final BookKeeper bookKeeper;
+    private final BookkeeperConfig config;
 
-    private final LedgerHandleService ledgerHandleService;
+    private final DecoderRegistry decoderRegistry;
 
     public LedgerContentController(@Autowired BookkeeperConfig config,
-                                   @Autowired BookKeeper bookKeeper,
-                                   @Autowired LedgerHandleService ledgerHandleService) {
+                                   @Autowired DecoderRegistry decoderRegistry) {
         this.config = config;
-        this.bookKeeper = bookKeeper;
-        this.ledgerHandleService = ledgerHandleService;
+        this.decoderRegistry = decoderRegistry;
+    }
+
+    @GetMapping("/decoders")
+    public List<DecoderResp> getDecoderList() {
+        return decoderRegistry.list();
     }
 
     @PutMapping("/ledger/{ledgerId}/entries")
-    public void putLedgerEntry(@PathVariable long ledgerId, @RequestBody PutLedgerEntryReq req) throws Exception {
+    public Mono<Void> putLedgerEntry(BookkeeperCluster cluster,
+                                     @PathVariable long ledgerId,
+                                     @RequestBody PutLedgerEntryReq req) {
+        LedgerHandleService ledgerHandleService = cluster.service(LedgerHandleService.class);
         LedgerHandle ledgerHandle = ledgerHandleService.getLedgerHandle(ledgerId);
         if (ledgerHandle == null) {
             throw new IllegalStateException("This ledger is not owned by me.");
         }
-        ledgerHandle.addEntry(req.getContent().getBytes(StandardCharsets.UTF_8));
+        return Mono.fromFuture(() -> ledgerHandle.appendAsync(req.getContent().getBytes(StandardCharsets.UTF_8)))
+                .then();
+    }
+
+    /**
+     * Accepts a json array or an ndjson stream of entries and pipelines them into the ledger.
+     */
+    @PostMapping("/ledgers/{ledger}/entries/batch")
+    public Mono<AddLedgerEntriesResp> addLedgerEntries(
+            BookkeeperCluster cluster,
+            @PathVariable long ledger,
+            @RequestParam(value = "encoding", defaultValue = "Raw")
+            EntryEncoding encoding,
+            @RequestParam(value = "maxInFlight", required = false)
+            Integer maxInFlight,
+            @RequestBody Flux<AddLedgerEntryReq> entries) {
+        LedgerWriteService ledgerWriteService = cluster.service(LedgerWriteService.class);
+        int window = maxInFlight == null ? config.addMaxInFlight : maxInFlight;
+        if (window <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        return ledgerWriteService.appendEntries(ledger,
+                entries.map(req -> BkUtil.decodeContent(req.getContent(), encoding)), window);
     }
 
+    /**
+     * Entries are read in bounded batches and emitted as they are decoded, request with
+     * {@code application/x-ndjson} to stream them. The next page starts at the {@value #NEXT_CURSOR_HEADER} header.
+     */
     @GetMapping("/ledgers/{ledger}/entries")
-    public List<GetLedgerEntryResp> getLedgerEntryList(
+    public Mono<ResponseEntity<Flux<GetLedgerEntryResp>>> getLedgerEntryList(
+            BookkeeperCluster cluster,
             @PathVariable long ledger,
+            @RequestParam(value = "fromEntry", defaultValue = "0")
+            long fromEntry,
+            @RequestParam(value = "limit", required = false)
+            Integer limit,
+            @RequestParam(value = "cursor", required = false)
+            Long cursor,
+            @RequestParam(value = "recover", defaultValue = "false")
+            boolean recover,
             @RequestParam(value = "decodeComponent", required = false)
             String component,
             @RequestParam(value = "decodeNamespace", required = false)
-            String namespace) throws Exception {
-        try (LedgerHandle ledgerHandle = bookKeeper.openLedger(ledger, config.digestType, config.getPassword())) {
-            Enumeration<LedgerEntry> readEntries = ledgerHandle.readEntries(0, ledgerHandle.getLastAddConfirmed());
-            List<GetLedgerEntryResp> result = new ArrayList<>();
-            while (readEntries.hasMoreElements()) {
-                LedgerEntry ledgerEntry = readEntries.nextElement();
-                result.add(BkUtil.convert(ledgerEntry, component, namespace));
-            }
-            return result;
+            String namespace,
+            @RequestParam(value = "decodePayload", defaultValue = "true")
+            boolean decodePayload,
+            @RequestParam(value = "maxPayloadBytes", required = false)
+            Integer maxPayloadBytes,
+            @RequestParam(value = "session", required = false)
+            String session,
+            ServerHttpRequest request) {
+        LedgerReadService ledgerReadService = cluster.service(LedgerReadService.class);
+        if (limit != null && limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
         }
+        long first = cursor == null ? fromEntry : cursor;
+        EntryDecoder decoder = decoderRegistry.resolve(component, namespace);
+        DecodeOptions options = decodeOptions(decodePayload, maxPayloadBytes);
+        return ledgerReadService.openLedger(ledger, recover)
+                .map(readHandle -> {
+                    long lac = readHandle.getLastAddConfirmed();
+                    long last = lastEntryOfPage(lac, first, limit);
+                    ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+                    if (last < lac) {
+                        builder.header(NEXT_CURSOR_HEADER, String.valueOf(last + 1));
+                    }
+                    return builder.body(ledgerReadService.readEntries(readHandle, first, last, decoder, options,
+                            readAheadSession(session, request)));
+                });
+    }
+
+    /**
+     * Writes the entries as binary frames, see {@link EntryFrameUtil}. Payloads go from the bookie buffers to the
+     * response without being copied or decoded.
+     */
+    @GetMapping("/ledgers/{ledger}/entries/raw")
+    public Mono<Void> getLedgerEntryListRaw(
+            BookkeeperCluster cluster,
+            @PathVariable long ledger,
+            @RequestParam(value = "fromEntry", defaultValue = "0")
+            long fromEntry,
+            @RequestParam(value = "limit", required = false)
+            Integer limit,
+            @RequestParam(value = "cursor", required = false)
+            Long cursor,
+            @RequestParam(value = "recover", defaultValue = "false")
+            boolean recover,
+            ServerHttpResponse response) {
+        LedgerReadService ledgerReadService = cluster.service(LedgerReadService.class);
+        if (limit != null && limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        long first = cursor == null ? fromEntry : cursor;
+        return writeEntryPage(ledgerReadService, ledger, first, limit, recover, MediaType.APPLICATION_OCTET_STREAM,
+                response,
+                (readHandle, last) -> ledgerReadService.readRawEntries(readHandle, first, last, true,
+                        response.bufferFactory()));
+    }
+
+    /**
+     * Hex dumps the entries as plain text, encoded entry by entry while the response is being written.
+     */
+    @GetMapping("/ledgers/{ledger}/entries/hex")
+    public Mono<Void> getLedgerEntryListHex(
+            BookkeeperCluster cluster,
+            @PathVariable long ledger,
+            @RequestParam(value = "fromEntry", defaultValue = "0")
+            long fromEntry,
+            @RequestParam(value = "limit", required = false)
+            Integer limit,
+            @RequestParam(value = "cursor", required = false)
+            Long cursor,
+            @RequestParam(value = "recover", defaultValue = "false")
+            boolean recover,
+            @RequestParam(value = "dump", defaultValue = "false")
+            boolean dump,
+            ServerHttpResponse response) {
+        LedgerReadService ledgerReadService = cluster.service(LedgerReadService.class);
+        if (limit != null && limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        long first = cursor == null ? fromEntry : cursor;
+        return writeEntryPage(ledgerReadService, ledger, first, limit, recover, MediaType.TEXT_PLAIN, response,
+                (readHandle, last) -> ledgerReadService.readHexEntries(readHandle, first, last, dump,
+                        response.bufferFactory()));
+    }
+
+    private Mono<Void> writeEntryPage(LedgerReadService ledgerReadService, long ledger, long first,
+                                      @Nullable Integer limit, boolean recover,
+                                      MediaType mediaType, ServerHttpResponse response,
+                                      BiFunction<ReadHandle, Long, Flux<DataBuffer>> reader) {
+        response.getHeaders().setContentType(mediaType);
+        return ledgerReadService.withLedger(ledger, recover, readHandle -> {
+            long lac = readHandle.getLastAddConfirmed();
+            long last = lastEntryOfPage(lac, first, limit);
+            if (last < lac) {
+                response.getHeaders().set(NEXT_CURSOR_HEADER, String.valueOf(last + 1));
+            }
+            return response.writeWith(reader.apply(readHandle, last));
+        });
     }
 
     @GetMapping("/ledgers/{ledger}/entries/{entry}")
-    public GetLedgerEntryResp getLedgerEntry(
+    public Mono<GetLedgerEntryResp> getLedgerEntry(
+            BookkeeperCluster cluster,
             @PathVariable long ledger,
             @PathVariable long entry,
+            @RequestParam(value = "recover", defaultValue = "false")
+            boolean recover,
             @RequestParam(value = "decodeComponent", required = false)
             String component,
             @RequestParam(value = "decodeNamespace", required = false)
-            String namespace) throws Exception {
-        Enumeration<LedgerEntry> readEntries;
-        GetLedgerEntryResp result = new GetLedgerEntryResp();
-        try (LedgerHandle ledgerHandle = bookKeeper.openLedger(ledger, config.digestType, config.getPassword())) {
-            readEntries = ledgerHandle.readEntries(entry, entry);
-            if (readEntries.hasMoreElements()) {
-                LedgerEntry ledgerEntry = readEntries.nextElement();
-                result = BkUtil.convert(ledgerEntry, component, namespace);
-            } else {
-                log.error("{}:{} query resp of this entry from bk is empty!", ledger, entry);
+            String namespace,
+            @RequestParam(value = "decodePayload", defaultValue = "true")
+            boolean decodePayload,
+            @RequestParam(value = "maxPayloadBytes", required = false)
+            Integer maxPayloadBytes,
+            @RequestParam(value = "session", required = false)
+            String session,
+            ServerHttpRequest request) {
+        LedgerReadService ledgerReadService = cluster.service(LedgerReadService.class);
+        EntryDecoder decoder = decoderRegistry.resolve(component, namespace);
+        DecodeOptions options = decodeOptions(decodePayload, maxPayloadBytes);
+        String readAheadSession = readAheadSession(session, request);
+        return ledgerReadService.withLedger(ledger, recover,
+                        readHandle -> ledgerReadService.readEntry(readHandle, entry, decoder, options,
+                                readAheadSession))
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    log.error("{}:{} query resp of this entry from bk is empty!", ledger, entry);
+                    return new GetLedgerEntryResp();
+                }))
+                .doOnError(e -> logReadError(ledger, entry, e));
+    }
+
+    @GetMapping("/ledgers/{ledger}/entries/{entry}/raw")
+    public Mono<Void> getLedgerEntryRaw(
+            BookkeeperCluster cluster,
+            @PathVariable long ledger,
+            @PathVariable long entry,
+            @RequestParam(value = "recover", defaultValue = "false")
+            boolean recover,
+            ServerHttpResponse response) {
+        LedgerReadService ledgerReadService = cluster.service(LedgerReadService.class);
+        response.getHeaders().setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        return ledgerReadService.withLedger(ledger, recover, readHandle -> {
+            if (entry > readHandle.getLastAddConfirmed()) {
+                return Mono.error(new BKException.BKNoSuchEntryException());
             }
-            return result;
-        } catch (org.apache.bookkeeper.client.BKException.BKNoSuchEntryException noSuchEntryException) {
-            log.error("{}:{} no such entry", ledger, entry);
-            throw noSuchEntryException;
-        } catch (org.apache.bookkeeper.client.BKException.BKNoSuchLedgerExistsException noSuchLedgerExistsException) {
-            log.error("{}:{} no such ledger", ledger, entry);
-            throw noSuchLedgerExistsException;
-        } catch (org.apache.bookkeeper.client.BKException.BKNoSuchLedgerExistsOnMetadataServerException
-                noSuchLedgerExistsOnMetadataServerException) {
-            log.error("{}:{} no such ledger metadata on metadata sever", ledger, entry);
-            throw noSuchLedgerExistsOnMetadataServerException;
-        } catch (Exception e) {
-            log.error("{}:{} unexpected err in read single entry:", ledger, entry, e);
-            throw e;
+            return response.writeWith(ledgerReadService.readRawEntries(readHandle, entry, entry, false,
+                    response.bufferFactory()));
+        }).doOnError(e -> logReadError(ledger, entry, e));
+    }
+
+    /**
+     * Scans [fromEntry, toEntry] on the server, request with {@code application/x-ndjson} to receive hits and
+     * progress while the scan runs.
+     */
+    @GetMapping("/ledgers/{ledger}/search")
+    public Flux<SearchEvent> searchLedger(
+            BookkeeperCluster cluster,
+            @PathVariable long ledger,
+            @RequestParam(value = "mode", defaultValue = "Bytes")
+            SearchMode mode,
+            @RequestParam(value = "pattern")
+            String pattern,
+            @RequestParam(value = "encoding", defaultValue = "Raw")
+            EntryEncoding encoding,
+            @RequestParam(value = "field", required = false)
+            String field,
+            @RequestParam(value = "fromEntry", defaultValue = "0")
+            long fromEntry,
+            @RequestParam(value = "toEntry", required = false)
+            Long toEntry,
+            @RequestParam(value = "maxHits", required = false)
+            Integer maxHits,
+            @RequestParam(value = "parallelism", required = false)
+            Integer parallelism,
+            @RequestParam(value = "maxPayloadBytes", required = false)
+            Integer maxPayloadBytes,
+            @RequestParam(value = "recover", defaultValue = "false")
+            boolean recover) {
+        LedgerReadService ledgerReadService = cluster.service(LedgerReadService.class);
+        LedgerSearchService ledgerSearchService = cluster.service(LedgerSearchService.class);
+        int hitLimit = maxHits == null ? config.searchMaxHits : maxHits;
+        int readers = parallelism == null ? config.searchParallelism : parallelism;
+        if (hitLimit <= 0 || readers <= 0) {
+            throw new IllegalArgumentException("maxHits and parallelism must be positive");
         }
+        EntryMatcher matcher = EntryMatchers.create(mode, pattern, encoding, field,
+                maxPayloadBytes == null ? config.decodeMaxPayloadBytes : maxPayloadBytes);
+        return ledgerReadService.openLedger(ledger, recover)
+                .flatMapMany(readHandle -> {
+                    long lac = readHandle.getLastAddConfirmed();
+                    long last = toEntry == null ? lac : Math.min(lac, toEntry);
+                    return ledgerSearchService.search(readHandle, fromEntry, last, matcher, hitLimit, readers);
+                });
     }
 
-    @GetMapping("/ledgers/{ledger}/lac")
-    public long getLedgerLac(@PathVariable long ledger) throws BKException, InterruptedException {
-        try (LedgerHandle ledgerHandle = bookKeeper.openLedger(ledger, config.digestType, config.getPassword())) {
-            return ledgerHandle.readLastAddConfirmed();
+    /**
+     * Summarizes [fromEntry, toEntry], every entry is read unless {@code sampleEvery} or {@code sampleSize} is set.
+     * With {@code pulsar} the Pulsar message metadata of every read entry is summarized as well.
+     */
+    @GetMapping("/ledgers/{ledger}/stats")
+    public Mono<LedgerStatsResp> getLedgerStats(
+            BookkeeperCluster cluster,
+            @PathVariable long ledger,
+            @RequestParam(value = "fromEntry", defaultValue = "0")
+            long fromEntry,
+            @RequestParam(value = "toEntry", required = false)
+            Long toEntry,
+            @RequestParam(value = "sampleEvery", defaultValue = "1")
+            int sampleEvery,
+            @RequestParam(value = "sampleSize", defaultValue = "0")
+            int sampleSize,
+            @RequestParam(value = "pulsar", defaultValue = "false")
+            boolean pulsar,
+            @RequestParam(value = "recover", defaultValue = "false")
+            boolean recover) {
+        LedgerReadService ledgerReadService = cluster.service(LedgerReadService.class);
+        LedgerStatsService ledgerStatsService = cluster.service(LedgerStatsService.class);
+        if (sampleEvery <= 0 || sampleSize < 0) {
+            throw new IllegalArgumentException("sampleEvery must be positive and sampleSize not negative");
         }
+        if (sampleEvery > 1 && sampleSize > 0) {
+            throw new IllegalArgumentException("sampleEvery and sampleSize are exclusive");
+        }
+        return ledgerReadService.withLedger(ledger, recover, readHandle -> {
+            long lac = readHandle.getLastAddConfirmed();
+            long last = toEntry == null ? lac : Math.min(lac, toEntry);
+            return ledgerStatsService.getStats(readHandle, fromEntry, last, sampleEvery, sampleSize, pulsar);
+        });
+    }
+
+    @GetMapping("/ledgers/{ledger}/lac")
+    public Mono<Long> getLedgerLac(BookkeeperCluster cluster,
+                                   @PathVariable long ledger,
+                                   @RequestParam(value = "recover", defaultValue = "false") boolean recover) {
+        LedgerReadService ledgerReadService = cluster.service(LedgerReadService.class);
+        return ledgerReadService.withLedger(ledger, recover,
+                readHandle -> Mono.just(readHandle.getLastAddConfirmed()));
     }
 
     @GetMapping("/ledgers/{ledger}/last-entry")
-    public GetLedgerEntryResp getLedgerLastEntry(@PathVariable long ledger,
-                                                 @RequestParam(value = "decodeComponent", required = false)
-                                                 String component,
-                                                 @RequestParam(value = "decodeNamespace", required = false)
-                                                 String namespace)
-            throws Exception {
-        try (LedgerHandle ledgerHandle = bookKeeper.openLedger(ledger, config.digestType, config.getPassword())) {
-            LedgerEntry ledgerEntry = ledgerHandle.readLastEntry();
-            return BkUtil.convert(ledgerEntry, component, namespace);
+    public Mono<GetLedgerEntryResp> getLedgerLastEntry(BookkeeperCluster cluster,
+                                                       @PathVariable long ledger,
+                                                       @RequestParam(value = "decodeComponent", required = false)
+                                                       String component,
+                                                       @RequestParam(value = "decodeNamespace", required = false)
+                                                       String namespace,
+                                                       @RequestParam(value = "decodePayload", defaultValue = "true")
+                                                       boolean decodePayload,
+                                                       @RequestParam(value = "maxPayloadBytes", required = false)
+                                                       Integer maxPayloadBytes,
+                                                       @RequestParam(value = "recover", defaultValue = "false")
+                                                       boolean recover) {
+        LedgerReadService ledgerReadService = cluster.service(LedgerReadService.class);
+        EntryDecoder decoder = decoderRegistry.resolve(component, namespace);
+        DecodeOptions options = decodeOptions(decodePayload, maxPayloadBytes);
+        return ledgerReadService.withLedger(ledger, recover, readHandle -> {
+            long lac = readHandle.getLastAddConfirmed();
+            if (lac < 0) {
+                return Mono.error(new BKException.BKNoSuchEntryException());
+            }
+            return ledgerReadService.readEntry(readHandle, lac, decoder, options, null);
+        });
+    }
+
+    /**
+     * Streams the entries added after subscription as server-sent events, the event id is the entry id. A heartbeat
+     * comment is sent every {@link BookkeeperConfig#tailHeartbeatSeconds} so idle streams are not cut by proxies.
+     */
+    @GetMapping(value = "/ledgers/{ledger}/tail", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<GetLedgerEntryResp>> tailLedger(
+            BookkeeperCluster cluster,
+            @PathVariable long ledger,
+            @RequestParam(value = "decodeComponent", required = false)
+            String component,
+            @RequestParam(value = "decodeNamespace", required = false)
+            String namespace,
+            @RequestParam(value = "decodePayload", defaultValue = "true")
+            boolean decodePayload,
+            @RequestParam(value = "maxPayloadBytes", required = false)
+            Integer maxPayloadBytes) {
+        LedgerTailService ledgerTailService = cluster.service(LedgerTailService.class);
+        EntryDecoder decoder = decoderRegistry.resolve(component, namespace);
+        DecodeOptions options = decodeOptions(decodePayload, maxPayloadBytes);
+        Flux<ServerSentEvent<GetLedgerEntryResp>> heartbeats =
+                Flux.interval(Duration.ofSeconds(config.tailHeartbeatSeconds))
+                        .map(tick -> ServerSentEvent.<GetLedgerEntryResp>builder().comment("heartbeat").build());
+        return ledgerTailService.tail(ledger, decoder, options)
+                .map(resp -> ServerSentEvent.builder(resp).id(String.valueOf(resp.getEntryId())).build())
+                .publish(events -> Flux.merge(events, heartbeats.takeUntilOther(events.then())));
+    }
+
+    private DecodeOptions decodeOptions(boolean decodePayload, @Nullable Integer maxPayloadBytes) {
+        if (maxPayloadBytes != null && maxPayloadBytes < 0) {
+            throw new IllegalArgumentException("maxPayloadBytes must not be negative");
+        }
+        DecodeOptions options = new DecodeOptions();
+        options.setPayload(decodePayload);
+        options.setMaxPayloadBytes(maxPayloadBytes == null ? config.decodeMaxPayloadBytes : maxPayloadBytes);
+        return options;
+    }
+
+    /**
+     * Read-ahead state is kept per ledger and session, clients that do not name a session share one per address.
+     */
+    private static @Nullable String readAheadSession(@Nullable String session, ServerHttpRequest request) {
+        if (session != null) {
+            return session;
+        }
+        InetSocketAddress address = request.getRemoteAddress();
+        return address == null ? null : address.getHostString();
+    }
+
+    private static long lastEntryOfPage(long lac, long first, @Nullable Integer limit) {
+        return limit == null ? lac : Math.min(lac, first + limit - 1);
+    }
+
+    private static void logReadError(long ledger, long entry, Throwable e) {
+        if (e instanceof BKException.BKNoSuchEntryException) {
+            log.error("{}:{} no such entry", ledger, entry);
+        } else if (e instanceof BKException.BKNoSuchLedgerExistsException) {
+            log.error("{}:{} no such ledger", ledger, entry);
+        } else if (e instanceof BKException.BKNoSuchLedgerExistsOnMetadataServerException) {
+            log.error("{}:{} no such ledger metadata on metadata sever", ledger, entry);
+        } else {
+            log.error("{}:{} unexpected err in read single entry:", ledger, entry, e);
         }
     }
 
@@ -19,14 +19,22 @@
 
 package io.github.dashboard.bookkeeper.controller;
 
+import io.github.dashboard.bookkeeper.cluster.BookkeeperCluster;
 import io.github.dashboard.bookkeeper.config.BookkeeperConfig;
+import io.github.dashboard.bookkeeper.module.DeleteLedgersJobResp;
+import io.github.dashboard.bookkeeper.module.ExportCompression;
+import io.github.dashboard.bookkeeper.module.IdEncoding;
+import io.github.dashboard.bookkeeper.module.LedgerIdPage;
+import io.github.dashboard.bookkeeper.module.LedgerMetadataResp;
+import io.github.dashboard.bookkeeper.module.LedgerTransferJobResp;
+import io.github.dashboard.bookkeeper.service.LedgerDeleteService;
 import io.github.dashboard.bookkeeper.service.LedgerHandleService;
+import io.github.dashboard.bookkeeper.service.LedgerIndexService;
+import io.github.dashboard.bookkeeper.service.LedgerMetadataService;
+import io.github.dashboard.bookkeeper.service.LedgerTransferService;
+import io.github.dashboard.bookkeeper.service.LedgerWriteService;
+import io.github.dashboard.bookkeeper.service.ReadHandleCacheService;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.bookkeeper.client.BKException;
-import org.apache.bookkeeper.client.BookKeeper;
-import org.apache.bookkeeper.client.LedgerHandle;
-import org.apache.bookkeeper.client.api.LedgersIterator;
-import org.apache.bookkeeper.client.api.ListLedgersResult;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -37,64 +45,186 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
 
 @Slf4j
 @RestController
-@RequestMapping("/api/bookkeeper")
+@RequestMapping({"/api/bookkeeper", "/api/bookkeeper/clusters/{cluster}"})
 public class LedgerController {
 
     private final BookkeeperConfig config;
 
-    private final BookKeeper bookKeeper;
-
-    private final LedgerHandleService ledgerHandleService;
-
-    public LedgerController(@Autowired BookkeeperConfig config,
-                            @Autowired BookKeeper bookKeeper,
-                            @Autowired LedgerHandleService ledgerHandleService) {
+    public LedgerController(@Autowired BookkeeperConfig config) {
         this.config = config;
-        this.bookKeeper = bookKeeper;
-        this.ledgerHandleService = ledgerHandleService;
     }
 
     @PutMapping("/ledgers")
-    public long createLedger() throws BKException, InterruptedException {
-        LedgerHandle ledgerHandle = bookKeeper.createLedger(config.ensembleSize,
-                config.writeQuorumSize, config.ackQuorumSize, config.digestType, config.getPassword());
-        long ledgerId = ledgerHandle.getId();
-        ledgerHandleService.putLedgerHandle(ledgerId, ledgerHandle);
-        return ledgerId;
+    public Mono<Long> createLedger(BookkeeperCluster cluster) {
+        LedgerWriteService ledgerWriteService = cluster.service(LedgerWriteService.class);
+        return ledgerWriteService.createLedger();
     }
 
     @GetMapping("/ledgers")
-    public List<Long> getLedgerList() throws InterruptedException, ExecutionException, IOException {
-        List<Long> result = new ArrayList<>();
-        ListLedgersResult response = bookKeeper.newListLedgersOp().execute().get();
-        LedgersIterator ledgersIterator = response.iterator();
-        while (ledgersIterator.hasNext()) {
-            result.add(ledgersIterator.next());
+    public Flux<Long> getLedgerList(BookkeeperCluster cluster) {
+        LedgerIndexService ledgerIndexService = cluster.service(LedgerIndexService.class);
+        return ledgerIndexService.listLedgers();
+    }
+
+    /**
+     * Pages through ledger ids, pass the returned {@code nextCursor} as {@code after} to get the next page.
+     */
+    @GetMapping("/ledgers/pages")
+    public Mono<LedgerIdPage> getLedgerPage(
+            BookkeeperCluster cluster,
+            @RequestParam(value = "after", defaultValue = "-1") long after,
+            @RequestParam(value = "fromLedger", defaultValue = "0") long fromLedger,
+            @RequestParam(value = "toLedger", defaultValue = "" + Long.MAX_VALUE) long toLedger,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "encoding", defaultValue = "Plain") IdEncoding encoding) {
+        LedgerIndexService ledgerIndexService = cluster.service(LedgerIndexService.class);
+        int pageSize = limit == null ? config.ledgerPageSize : limit;
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
         }
-        return result;
+        return ledgerIndexService.listLedgerPage(Math.max(after, fromLedger - 1), toLedger, pageSize, encoding);
+    }
+
+    @GetMapping("/ledgers/count")
+    public Mono<Long> getLedgerCount(
+            BookkeeperCluster cluster,
+            @RequestParam(value = "fromLedger", defaultValue = "0") long fromLedger,
+            @RequestParam(value = "toLedger", defaultValue = "" + Long.MAX_VALUE) long toLedger) {
+        LedgerIndexService ledgerIndexService = cluster.service(LedgerIndexService.class);
+        return ledgerIndexService.countLedgers(fromLedger, toLedger);
+    }
+
+    @GetMapping("/ledgers/{ledger}/metadata")
+    public Mono<LedgerMetadataResp> getLedgerMetadata(BookkeeperCluster cluster, @PathVariable long ledger) {
+        LedgerMetadataService ledgerMetadataService = cluster.service(LedgerMetadataService.class);
+        return ledgerMetadataService.getLedgerMetadata(ledger);
+    }
+
+    @GetMapping("/ledgers/metadata")
+    public Flux<LedgerMetadataResp> getLedgerMetadataList(BookkeeperCluster cluster,
+                                                          @RequestParam("ids") List<Long> ledgerIds) {
+        LedgerMetadataService ledgerMetadataService = cluster.service(LedgerMetadataService.class);
+        return ledgerMetadataService.getLedgerMetadataList(ledgerIds);
+    }
+
+    @PostMapping("/ledgers/{ledger}/close")
+    public Mono<ResponseEntity<Void>> closeLedger(BookkeeperCluster cluster, @PathVariable long ledger) {
+        LedgerHandleService ledgerHandleService = cluster.service(LedgerHandleService.class);
+        ReadHandleCacheService readHandleCacheService = cluster.service(ReadHandleCacheService.class);
+        LedgerMetadataService ledgerMetadataService = cluster.service(LedgerMetadataService.class);
+        return ledgerHandleService.closeLedgerHandle(ledger)
+                .then(Mono.fromRunnable(() -> {
+                    readHandleCacheService.invalidate(ledger);
+                    ledgerMetadataService.invalidate(ledger);
+                }))
+                .thenReturn(new ResponseEntity<>(HttpStatus.NO_CONTENT));
     }
 
     @DeleteMapping("/ledgers/{ledger}")
-    public ResponseEntity<Void> deleteLedger(@PathVariable long ledger) throws Exception {
-        bookKeeper.deleteLedger(ledger);
-        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    public Mono<ResponseEntity<Void>> deleteLedger(BookkeeperCluster cluster, @PathVariable long ledger) {
+        LedgerDeleteService ledgerDeleteService = cluster.service(LedgerDeleteService.class);
+        return ledgerDeleteService.deleteLedger(ledger).thenReturn(new ResponseEntity<>(HttpStatus.NO_CONTENT));
     }
 
+    /**
+     * Deletes every ledger even if some of them fail, the failed ones are returned with a multi status.
+     */
     @PostMapping("/ledgers-delete")
-    public ResponseEntity<Void> deleteLedgerList(@RequestBody List<Long> ledgerIds)
-            throws BKException, InterruptedException {
-        for (long ledgerId : ledgerIds) {
-            bookKeeper.deleteLedger(ledgerId);
-        }
-        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    public Mono<ResponseEntity<DeleteLedgersJobResp>> deleteLedgerList(BookkeeperCluster cluster,
+                                                                       @RequestBody List<Long> ledgerIds) {
+        LedgerDeleteService ledgerDeleteService = cluster.service(LedgerDeleteService.class);
+        return ledgerDeleteService.run(ledgerIds).map(resp -> {
+            if (resp.getFailures().isEmpty()) {
+                return new ResponseEntity<DeleteLedgersJobResp>(HttpStatus.NO_CONTENT);
+            }
+            return new ResponseEntity<>(resp, HttpStatus.MULTI_STATUS);
+        });
+    }
+
+    @PostMapping("/ledgers-delete/jobs")
+    public DeleteLedgersJobResp submitDeleteLedgersJob(
+            BookkeeperCluster cluster,
+            @RequestBody List<Long> ledgerIds,
+            @RequestParam(value = "concurrency", required = false) Integer concurrency,
+            @RequestParam(value = "opsPerSecond", required = false) Integer opsPerSecond) {
+        LedgerDeleteService ledgerDeleteService = cluster.service(LedgerDeleteService.class);
+        return ledgerDeleteService.submit(ledgerIds,
+                concurrency == null ? config.deleteConcurrency : concurrency,
+                opsPerSecond == null ? config.deleteOpsPerSecond : opsPerSecond);
+    }
+
+    @GetMapping("/ledgers-delete/jobs/{jobId}")
+    public ResponseEntity<DeleteLedgersJobResp> getDeleteLedgersJob(BookkeeperCluster cluster,
+                                                                    @PathVariable String jobId) {
+        LedgerDeleteService ledgerDeleteService = cluster.service(LedgerDeleteService.class);
+        DeleteLedgersJobResp resp = ledgerDeleteService.getJob(jobId);
+        return resp == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(resp);
+    }
+
+    @DeleteMapping("/ledgers-delete/jobs/{jobId}")
+    public ResponseEntity<DeleteLedgersJobResp> cancelDeleteLedgersJob(BookkeeperCluster cluster,
+                                                                       @PathVariable String jobId) {
+        LedgerDeleteService ledgerDeleteService = cluster.service(LedgerDeleteService.class);
+        DeleteLedgersJobResp resp = ledgerDeleteService.cancelJob(jobId);
+        return resp == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(resp);
+    }
+
+    /**
+     * Exports a ledger to {@code file}, relative to the export directory. With {@code resume} an interrupted export
+     * of the same ledger continues from its checkpoint.
+     */
+    @PostMapping("/ledgers/{ledger}/export/jobs")
+    public LedgerTransferJobResp submitExportLedgerJob(
+            BookkeeperCluster cluster,
+            @PathVariable long ledger,
+            @RequestParam(value = "file") String file,
+            @RequestParam(value = "compression", defaultValue = "None") ExportCompression compression,
+            @RequestParam(value = "fromEntry", defaultValue = "0") long fromEntry,
+            @RequestParam(value = "toEntry", required = false) Long toEntry,
+            @RequestParam(value = "parallelism", required = false) Integer parallelism,
+            @RequestParam(value = "resume", defaultValue = "false") boolean resume) {
+        LedgerTransferService ledgerTransferService = cluster.service(LedgerTransferService.class);
+        return ledgerTransferService.submitExport(ledger, file, compression, fromEntry, toEntry,
+                parallelism == null ? config.exportParallelism : parallelism, resume);
+    }
+
+    /**
+     * Imports an export file into a new ledger, which is closed once every entry was added unless {@code close} is
+     * false.
+     */
+    @PostMapping("/ledgers-import/jobs")
+    public LedgerTransferJobResp submitImportLedgerJob(
+            BookkeeperCluster cluster,
+            @RequestParam(value = "file") String file,
+            @RequestParam(value = "maxInFlight", required = false) Integer maxInFlight,
+            @RequestParam(value = "close", defaultValue = "true") boolean close) {
+        LedgerTransferService ledgerTransferService = cluster.service(LedgerTransferService.class);
+        return ledgerTransferService.submitImport(file, maxInFlight == null ? config.addMaxInFlight : maxInFlight,
+                close);
+    }
+
+    @GetMapping("/ledgers-transfer/jobs/{jobId}")
+    public ResponseEntity<LedgerTransferJobResp> getTransferLedgerJob(BookkeeperCluster cluster,
+                                                                      @PathVariable String jobId) {
+        LedgerTransferService ledgerTransferService = cluster.service(LedgerTransferService.class);
+        LedgerTransferJobResp resp = ledgerTransferService.getJob(jobId);
+        return resp == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(resp);
+    }
+
+    @DeleteMapping("/ledgers-transfer/jobs/{jobId}")
+    public ResponseEntity<LedgerTransferJobResp> cancelTransferLedgerJob(BookkeeperCluster cluster,
+                                                                         @PathVariable String jobId) {
+        LedgerTransferService ledgerTransferService = cluster.service(LedgerTransferService.class);
+        LedgerTransferJobResp resp = ledgerTransferService.cancelJob(jobId);
+        return resp == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(resp);
     }
 }
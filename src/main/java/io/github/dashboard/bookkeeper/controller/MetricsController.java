@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.controller;
+
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.apache.bookkeeper.stats.prometheus.PrometheusMetricsProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.StringWriter;
+
+/**
+ * Prometheus scrape endpoint, the dashboard meters followed by the stats of the BookKeeper client.
+ */
+@RestController
+@RequestMapping("/api/bookkeeper/metrics")
+public class MetricsController {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final PrometheusMeterRegistry meterRegistry;
+
+    private final PrometheusMetricsProvider bookkeeperStatsProvider;
+
+    private final Scheduler bookkeeperScheduler;
+
+    public MetricsController(@Autowired PrometheusMeterRegistry meterRegistry,
+                             @Autowired PrometheusMetricsProvider bookkeeperStatsProvider,
+                             @Autowired Scheduler bookkeeperScheduler) {
+        this.meterRegistry = meterRegistry;
+        this.bookkeeperStatsProvider = bookkeeperStatsProvider;
+        this.bookkeeperScheduler = bookkeeperScheduler;
+    }
+
+    @GetMapping(produces = CONTENT_TYPE)
+    public Mono<String> scrape() {
+        return Mono.fromCallable(() -> {
+            StringWriter writer = new StringWriter();
+            writer.write(meterRegistry.scrape());
+            bookkeeperStatsProvider.writeAllMetrics(writer);
+            return writer.toString();
+        }).subscribeOn(bookkeeperScheduler);
+    }
+
+}
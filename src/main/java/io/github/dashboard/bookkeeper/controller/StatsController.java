@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.controller;
+
+import io.github.dashboard.bookkeeper.cluster.BookkeeperCluster;
+import io.github.dashboard.bookkeeper.module.CacheStatsResp;
+import io.github.dashboard.bookkeeper.service.EntryCacheService;
+import io.github.dashboard.bookkeeper.service.LedgerHandleService;
+import io.github.dashboard.bookkeeper.service.LedgerMetadataService;
+import io.github.dashboard.bookkeeper.service.LedgerStatsService;
+import io.github.dashboard.bookkeeper.service.ReadAheadService;
+import io.github.dashboard.bookkeeper.service.ReadHandleCacheService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping({"/api/bookkeeper/stats", "/api/bookkeeper/clusters/{cluster}/stats"})
+public class StatsController {
+
+    @GetMapping("/read-handle-cache")
+    public CacheStatsResp getReadHandleCacheStats(BookkeeperCluster cluster) {
+        return cluster.service(ReadHandleCacheService.class).stats();
+    }
+
+    @GetMapping("/write-handles")
+    public CacheStatsResp getWriteHandleStats(BookkeeperCluster cluster) {
+        return cluster.service(LedgerHandleService.class).stats();
+    }
+
+    @GetMapping("/metadata-cache")
+    public CacheStatsResp getMetadataCacheStats(BookkeeperCluster cluster) {
+        return cluster.service(LedgerMetadataService.class).stats();
+    }
+
+    @GetMapping("/ledger-stats-cache")
+    public CacheStatsResp getLedgerStatsCacheStats(BookkeeperCluster cluster) {
+        return cluster.service(LedgerStatsService.class).stats();
+    }
+
+    @GetMapping("/entry-cache")
+    public CacheStatsResp getEntryCacheStats(BookkeeperCluster cluster) {
+        return cluster.service(EntryCacheService.class).payloadStats();
+    }
+
+    @GetMapping("/decoded-entry-cache")
+    public CacheStatsResp getDecodedEntryCacheStats(BookkeeperCluster cluster) {
+        return cluster.service(EntryCacheService.class).decodedStats();
+    }
+
+    @GetMapping("/read-ahead")
+    public CacheStatsResp getReadAheadStats(BookkeeperCluster cluster) {
+        return cluster.service(ReadAheadService.class).stats();
+    }
+
+}
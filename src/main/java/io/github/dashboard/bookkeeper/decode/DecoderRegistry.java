@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.decode;
+
+import io.github.dashboard.bookkeeper.module.DecoderResp;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resolves {@code decodeComponent}/{@code decodeNamespace} request parameters to an {@link EntryDecoder}. Resolve
+ * once per request and reuse the decoder for every entry.
+ */
+@Slf4j
+@Component
+public class DecoderRegistry {
+
+    private final Map<String, EntryDecoder> decoders = new HashMap<>();
+
+    private final List<DecoderResp> decoderList = new ArrayList<>();
+
+    public DecoderRegistry(@Autowired List<EntryDecoder> decoders) {
+        for (EntryDecoder decoder : decoders) {
+            String key = key(decoder.getComponent(), decoder.getNamespace());
+            EntryDecoder previous = this.decoders.putIfAbsent(key, decoder);
+            if (previous != null) {
+                throw new IllegalStateException("decoders " + previous.getClass().getName() + " and "
+                        + decoder.getClass().getName() + " are both registered for " + key);
+            }
+            DecoderResp decoderResp = new DecoderResp();
+            decoderResp.setComponent(decoder.getComponent());
+            decoderResp.setNamespace(decoder.getNamespace());
+            decoderList.add(decoderResp);
+        }
+        if (!this.decoders.containsKey(key(Utf8Decoder.COMPONENT, null))) {
+            throw new IllegalStateException("no default " + Utf8Decoder.COMPONENT + " decoder registered");
+        }
+        log.info("registered entry decoders {}", this.decoders.keySet());
+    }
+
+    /**
+     * Without a component the content is decoded as UTF-8. A decoder registered without namespace serves every
+     * namespace of its component.
+     *
+     * @throws IllegalArgumentException when no decoder matches
+     */
+    public EntryDecoder resolve(@Nullable String component, @Nullable String namespace) {
+        if (StringUtils.isEmpty(component)) {
+            return decoders.get(key(Utf8Decoder.COMPONENT, null));
+        }
+        EntryDecoder decoder = decoders.get(key(component, namespace));
+        if (decoder == null && StringUtils.isNotEmpty(namespace)) {
+            decoder = decoders.get(key(component, null));
+        }
+        if (decoder == null) {
+            throw new IllegalArgumentException("no decoder for component " + component + " namespace " + namespace);
+        }
+        return decoder;
+    }
+
+    public List<DecoderResp> list() {
+        return decoderList;
+    }
+
+    private static String key(String component, @Nullable String namespace) {
+        String key = component.toLowerCase(Locale.ROOT) + "/";
+        return StringUtils.isEmpty(namespace) ? key : key + namespace.toLowerCase(Locale.ROOT);
+    }
+
+}
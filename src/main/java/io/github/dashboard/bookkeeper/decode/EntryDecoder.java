@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.decode;
+
+import io.github.dashboard.bookkeeper.module.DecodeOptions;
+import io.netty.buffer.ByteBuf;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decodes entry payloads of one format. Implementations are picked up as beans by {@link DecoderRegistry} and are
+ * shared by all requests, so they must be stateless.
+ */
+public interface EntryDecoder {
+
+    /**
+     * The {@code decodeComponent} this decoder answers to, matched case insensitively.
+     */
+    String getComponent();
+
+    /**
+     * The {@code decodeNamespace} this decoder answers to, null when it handles every namespace of its component.
+     */
+    @Nullable
+    String getNamespace();
+
+    /**
+     * Decodes the readable bytes of {@code data} without consuming them. The buffer is only valid during the call.
+     *
+     * @return a {@link String} returned as the entry content, anything else is returned as structured JSON
+     */
+    Object decode(ByteBuf data, DecodeOptions options) throws Exception;
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.decode;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal protobuf wire format reader over a {@link ByteBuf}. Length delimited fields are returned as slices of the
+ * underlying buffer, nothing is copied until a caller asks for a string.
+ */
+public class ProtobufReader {
+
+    public static final int WIRE_VARINT = 0;
+
+    public static final int WIRE_FIXED64 = 1;
+
+    public static final int WIRE_LENGTH_DELIMITED = 2;
+
+    public static final int WIRE_FIXED32 = 5;
+
+    private final ByteBuf buf;
+
+    /**
+     * Reads from the reader index of {@code buf} up to its writer index, advancing the reader index.
+     */
+    public ProtobufReader(ByteBuf buf) {
+        this.buf = buf;
+    }
+
+    public boolean isReadable() {
+        return buf.isReadable();
+    }
+
+    public int readTag() {
+        return (int) readVarint();
+    }
+
+    public static int fieldNumber(int tag) {
+        return tag >>> 3;
+    }
+
+    public long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (!buf.isReadable()) {
+                throw new IllegalArgumentException("truncated varint");
+            }
+            byte b = buf.readByte();
+            value |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint");
+    }
+
+    public int readInt() {
+        return (int) readVarint();
+    }
+
+    public boolean readBool() {
+        return readVarint() != 0;
+    }
+
+    public ByteBuf readBytes() {
+        long length = readVarint();
+        if (length < 0 || length > buf.readableBytes()) {
+            throw new IllegalArgumentException("length " + length + " exceeds the " + buf.readableBytes()
+                    + " remaining bytes");
+        }
+        return buf.readSlice((int) length);
+    }
+
+    public String readString() {
+        return readBytes().toString(StandardCharsets.UTF_8);
+    }
+
+    public void skip(int tag) {
+        switch (tag & 0x07) {
+            case WIRE_VARINT:
+                readVarint();
+                break;
+            case WIRE_FIXED64:
+                skipFixed(8);
+                break;
+            case WIRE_LENGTH_DELIMITED:
+                readBytes();
+                break;
+            case WIRE_FIXED32:
+                skipFixed(4);
+                break;
+            default:
+                throw new IllegalArgumentException("unsupported wire type " + (tag & 0x07));
+        }
+    }
+
+    private void skipFixed(int length) {
+        if (buf.readableBytes() < length) {
+            throw new IllegalArgumentException("truncated fixed" + length * 8);
+        }
+        buf.skipBytes(length);
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.decode;
+
+import io.airlift.compress.Decompressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.compress.snappy.SnappyDecompressor;
+import io.airlift.compress.zstd.ZstdDecompressor;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decompresses Pulsar payloads: raw LZ4 blocks, zlib streams, zstd frames and raw snappy, as written by the Pulsar
+ * compression codecs.
+ */
+public class PulsarDecompressor {
+
+    /**
+     * Decompresses {@code payload} into a new heap buffer of exactly {@code uncompressedSize} bytes, the payload
+     * itself is not consumed.
+     */
+    public static ByteBuf decompress(ByteBuf payload, String compression, int uncompressedSize)
+            throws DataFormatException {
+        if (PulsarEntryParser.COMPRESSION_NONE.equals(compression)) {
+            return payload;
+        }
+        if (uncompressedSize < 0) {
+            throw new DataFormatException("negative uncompressed size " + uncompressedSize);
+        }
+        ByteBuffer input = payload.nioBuffer();
+        byte[] output = new byte[uncompressedSize];
+        int length;
+        switch (compression) {
+            case "LZ4":
+                length = decompress(new Lz4Decompressor(), input, output);
+                break;
+            case "ZLIB":
+                length = inflate(input, output);
+                break;
+            case "ZSTD":
+                length = decompress(new ZstdDecompressor(), input, output);
+                break;
+            case "SNAPPY":
+                length = decompress(new SnappyDecompressor(), input, output);
+                break;
+            default:
+                throw new IllegalArgumentException("unsupported compression " + compression);
+        }
+        if (length != uncompressedSize) {
+            throw new DataFormatException(compression + " payload decompressed to " + length + " bytes, expected "
+                    + uncompressedSize);
+        }
+        return Unpooled.wrappedBuffer(output);
+    }
+
+    private static int decompress(Decompressor decompressor, ByteBuffer input, byte[] output)
+            throws DataFormatException {
+        ByteBuffer outputBuffer = ByteBuffer.wrap(output);
+        try {
+            decompressor.decompress(input, outputBuffer);
+        } catch (RuntimeException e) {
+            // besides MalformedInputException the codecs fail on a too small output with buffer exceptions
+            DataFormatException dataFormatException = new DataFormatException(e.getMessage());
+            dataFormatException.initCause(e);
+            throw dataFormatException;
+        }
+        return outputBuffer.position();
+    }
+
+    private static int inflate(ByteBuffer input, byte[] output) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            int length = 0;
+            while (length < output.length && !inflater.finished()) {
+                int inflated = inflater.inflate(output, length, output.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length == output.length && !inflater.finished() && inflater.inflate(new byte[1]) > 0) {
+                throw new DataFormatException("zlib payload exceeds " + output.length + " bytes");
+            }
+            return length;
+        } finally {
+            inflater.end();
+        }
+    }
+
+}
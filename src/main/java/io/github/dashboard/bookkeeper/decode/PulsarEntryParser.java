@@ -0,0 +1,341 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.decode;
+
+import io.github.dashboard.bookkeeper.module.PulsarDataEntry;
+import io.github.dashboard.bookkeeper.module.PulsarMessageMetadata;
+import io.github.dashboard.bookkeeper.module.PulsarSingleMessage;
+import io.github.dashboard.bookkeeper.util.HexUtil;
+import io.netty.buffer.ByteBuf;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Parses entries of Pulsar topic data ledgers, laid out as
+ * {@code [0x0e02 size BrokerEntryMetadata] [0x0e01 crc32c] metadataSize MessageMetadata payload}, the first two parts
+ * being optional. Batched payloads are a sequence of {@code size SingleMessageMetadata payload}.
+ * Everything is read from slices of the entry buffer, whose reader index is left alone.
+ */
+public class PulsarEntryParser {
+
+    public static final String COMPONENT = "Pulsar";
+
+    public static final String COMPRESSION_NONE = "NONE";
+
+    private static final short MAGIC_CRC32C = 0x0e01;
+
+    private static final short MAGIC_BROKER_ENTRY_METADATA = 0x0e02;
+
+    private static final String[] COMPRESSION_TYPES = {COMPRESSION_NONE, "LZ4", "ZLIB", "ZSTD", "SNAPPY"};
+
+    /**
+     * Fills the broker entry metadata, checksum and message metadata of {@code entry}.
+     *
+     * @return the payload, a slice of {@code data}
+     */
+    public static ByteBuf parseHeaders(ByteBuf data, PulsarDataEntry entry) {
+        ByteBuf buf = data.duplicate();
+        if (buf.readableBytes() >= 2 && buf.getShort(buf.readerIndex()) == MAGIC_BROKER_ENTRY_METADATA) {
+            buf.skipBytes(2);
+            parseBrokerEntryMetadata(readSlice(buf, readSize(buf)), entry);
+        }
+        if (buf.readableBytes() >= 2 && buf.getShort(buf.readerIndex()) == MAGIC_CRC32C) {
+            buf.skipBytes(2);
+            if (buf.readableBytes() < 4) {
+                throw new IllegalArgumentException("truncated checksum");
+            }
+            long checksum = buf.readUnsignedInt();
+            entry.setChecksum(checksum);
+            entry.setChecksumValid(crc32c(buf) == checksum);
+        }
+        entry.setMetadata(parseMessageMetadata(readSlice(buf, readSize(buf))));
+        entry.setPayloadSize(buf.readableBytes());
+        return buf.slice();
+    }
+
+    public static boolean isBatch(PulsarMessageMetadata metadata) {
+        return metadata.getNumMessagesInBatch() != null;
+    }
+
+    /**
+     * Splits an uncompressed batch payload into its messages.
+     */
+    public static List<PulsarSingleMessage> parseBatch(ByteBuf payload, int numMessages) {
+        return parseBatch(payload, numMessages, true);
+    }
+
+    /**
+     * Splits an uncompressed batch payload into its messages, without {@code payloads} only their metadata is read.
+     */
+    public static List<PulsarSingleMessage> parseBatch(ByteBuf payload, int numMessages, boolean payloads) {
+        ByteBuf buf = payload.duplicate();
+        List<PulsarSingleMessage> messages = new ArrayList<>(numMessages);
+        for (int i = 0; i < numMessages && buf.isReadable(); i++) {
+            PulsarSingleMessage message = parseSingleMessageMetadata(readSlice(buf, readSize(buf)));
+            ByteBuf messagePayload = readSlice(buf, message.getPayloadSize() == null ? 0 : message.getPayloadSize());
+            if (payloads) {
+                message.setPayload(messagePayload.toString(StandardCharsets.UTF_8));
+            }
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    public static PulsarMessageMetadata parseMessageMetadata(ByteBuf buf) {
+        ProtobufReader reader = new ProtobufReader(buf);
+        PulsarMessageMetadata metadata = new PulsarMessageMetadata();
+        while (reader.isReadable()) {
+            int tag = reader.readTag();
+            switch (ProtobufReader.fieldNumber(tag)) {
+                case 1:
+                    metadata.setProducerName(reader.readString());
+                    break;
+                case 2:
+                    metadata.setSequenceId(reader.readVarint());
+                    break;
+                case 3:
+                    metadata.setPublishTime(reader.readVarint());
+                    break;
+                case 4:
+                    if (metadata.getProperties() == null) {
+                        metadata.setProperties(new HashMap<>());
+                    }
+                    readKeyValue(reader.readBytes(), metadata.getProperties());
+                    break;
+                case 5:
+                    metadata.setReplicatedFrom(reader.readString());
+                    break;
+                case 6:
+                    metadata.setPartitionKey(reader.readString());
+                    break;
+                case 7:
+                    if (metadata.getReplicateTo() == null) {
+                        metadata.setReplicateTo(new ArrayList<>());
+                    }
+                    metadata.getReplicateTo().add(reader.readString());
+                    break;
+                case 8:
+                    metadata.setCompression(compressionType(reader.readInt()));
+                    break;
+                case 9:
+                    metadata.setUncompressedSize(reader.readInt());
+                    break;
+                case 11:
+                    metadata.setNumMessagesInBatch(reader.readInt());
+                    break;
+                case 12:
+                    metadata.setEventTime(reader.readVarint());
+                    break;
+                case 13:
+                    if (metadata.getEncryptionKeys() == null) {
+                        metadata.setEncryptionKeys(new ArrayList<>());
+                    }
+                    metadata.getEncryptionKeys().add(readEncryptionKeyName(reader.readBytes()));
+                    break;
+                case 14:
+                    metadata.setEncryptionAlgo(reader.readString());
+                    break;
+                case 16:
+                    metadata.setSchemaVersion(HexUtil.bytes2hex(reader.readBytes()));
+                    break;
+                case 17:
+                    metadata.setPartitionKeyB64Encoded(reader.readBool());
+                    break;
+                case 18:
+                    metadata.setOrderingKey(HexUtil.bytes2hex(reader.readBytes()));
+                    break;
+                case 19:
+                    metadata.setDeliverAtTime(reader.readVarint());
+                    break;
+                case 20:
+                    metadata.setMarkerType(reader.readInt());
+                    break;
+                case 22:
+                    metadata.setTxnidLeastBits(reader.readVarint());
+                    break;
+                case 23:
+                    metadata.setTxnidMostBits(reader.readVarint());
+                    break;
+                case 24:
+                    metadata.setHighestSequenceId(reader.readVarint());
+                    break;
+                case 25:
+                    metadata.setNullValue(reader.readBool());
+                    break;
+                case 26:
+                    metadata.setUuid(reader.readString());
+                    break;
+                case 27:
+                    metadata.setNumChunksFromMsg(reader.readInt());
+                    break;
+                case 28:
+                    metadata.setTotalChunkMsgSize(reader.readInt());
+                    break;
+                case 29:
+                    metadata.setChunkId(reader.readInt());
+                    break;
+                case 30:
+                    metadata.setNullPartitionKey(reader.readBool());
+                    break;
+                default:
+                    reader.skip(tag);
+                    break;
+            }
+        }
+        if (metadata.getCompression() == null) {
+            metadata.setCompression(COMPRESSION_NONE);
+        }
+        return metadata;
+    }
+
+    public static PulsarSingleMessage parseSingleMessageMetadata(ByteBuf buf) {
+        ProtobufReader reader = new ProtobufReader(buf);
+        PulsarSingleMessage message = new PulsarSingleMessage();
+        while (reader.isReadable()) {
+            int tag = reader.readTag();
+            switch (ProtobufReader.fieldNumber(tag)) {
+                case 1:
+                    if (message.getProperties() == null) {
+                        message.setProperties(new HashMap<>());
+                    }
+                    readKeyValue(reader.readBytes(), message.getProperties());
+                    break;
+                case 2:
+                    message.setPartitionKey(reader.readString());
+                    break;
+                case 3:
+                    message.setPayloadSize(reader.readInt());
+                    break;
+                case 4:
+                    message.setCompactedOut(reader.readBool());
+                    break;
+                case 5:
+                    message.setEventTime(reader.readVarint());
+                    break;
+                case 6:
+                    message.setPartitionKeyB64Encoded(reader.readBool());
+                    break;
+                case 7:
+                    message.setOrderingKey(HexUtil.bytes2hex(reader.readBytes()));
+                    break;
+                case 8:
+                    message.setSequenceId(reader.readVarint());
+                    break;
+                case 9:
+                    message.setNullValue(reader.readBool());
+                    break;
+                case 10:
+                    message.setNullPartitionKey(reader.readBool());
+                    break;
+                default:
+                    reader.skip(tag);
+                    break;
+            }
+        }
+        return message;
+    }
+
+    private static void parseBrokerEntryMetadata(ByteBuf buf, PulsarDataEntry entry) {
+        ProtobufReader reader = new ProtobufReader(buf);
+        while (reader.isReadable()) {
+            int tag = reader.readTag();
+            switch (ProtobufReader.fieldNumber(tag)) {
+                case 1:
+                    entry.setBrokerTimestamp(reader.readVarint());
+                    break;
+                case 2:
+                    entry.setBrokerIndex(reader.readVarint());
+                    break;
+                default:
+                    reader.skip(tag);
+                    break;
+            }
+        }
+    }
+
+    private static void readKeyValue(ByteBuf buf, Map<String, String> properties) {
+        ProtobufReader reader = new ProtobufReader(buf);
+        String key = null;
+        String value = null;
+        while (reader.isReadable()) {
+            int tag = reader.readTag();
+            switch (ProtobufReader.fieldNumber(tag)) {
+                case 1:
+                    key = reader.readString();
+                    break;
+                case 2:
+                    value = reader.readString();
+                    break;
+                default:
+                    reader.skip(tag);
+                    break;
+            }
+        }
+        if (key != null) {
+            properties.put(key, value);
+        }
+    }
+
+    private static String readEncryptionKeyName(ByteBuf buf) {
+        ProtobufReader reader = new ProtobufReader(buf);
+        while (reader.isReadable()) {
+            int tag = reader.readTag();
+            if (ProtobufReader.fieldNumber(tag) == 1) {
+                return reader.readString();
+            }
+            reader.skip(tag);
+        }
+        return "";
+    }
+
+    private static String compressionType(int value) {
+        return value >= 0 && value < COMPRESSION_TYPES.length ? COMPRESSION_TYPES[value] : String.valueOf(value);
+    }
+
+    private static int readSize(ByteBuf buf) {
+        if (buf.readableBytes() < 4) {
+            throw new IllegalArgumentException("truncated size field");
+        }
+        return buf.readInt();
+    }
+
+    private static ByteBuf readSlice(ByteBuf buf, int length) {
+        if (length < 0 || length > buf.readableBytes()) {
+            throw new IllegalArgumentException("size " + length + " exceeds the " + buf.readableBytes()
+                    + " remaining bytes");
+        }
+        return buf.readSlice(length);
+    }
+
+    private static long crc32c(ByteBuf buf) {
+        CRC32C crc = new CRC32C();
+        for (ByteBuffer byteBuffer : buf.nioBuffers()) {
+            crc.update(byteBuffer);
+        }
+        return crc.getValue();
+    }
+
+}
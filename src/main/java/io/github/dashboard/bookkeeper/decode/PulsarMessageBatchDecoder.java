@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.decode;
+
+import io.github.dashboard.bookkeeper.module.DecodeOptions;
+import io.github.dashboard.bookkeeper.module.PulsarDataEntry;
+import io.github.dashboard.bookkeeper.module.PulsarMessageMetadata;
+import io.netty.buffer.ByteBuf;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+
+/**
+ * Pulsar topic data entries with their payload, split into messages when the entry is a batch. The payload is only
+ * decompressed when payloads are requested, and left alone when it is encrypted or larger than
+ * {@link DecodeOptions#getMaxPayloadBytes()}.
+ */
+@Component
+public class PulsarMessageBatchDecoder implements EntryDecoder {
+
+    @Override
+    public String getComponent() {
+        return PulsarEntryParser.COMPONENT;
+    }
+
+    @Override
+    public String getNamespace() {
+        return "MessageBatch";
+    }
+
+    @Override
+    public Object decode(ByteBuf data, DecodeOptions options) throws Exception {
+        PulsarDataEntry entry = new PulsarDataEntry();
+        ByteBuf payload = PulsarEntryParser.parseHeaders(data, entry);
+        if (!options.isPayload()) {
+            return entry;
+        }
+        PulsarMessageMetadata metadata = entry.getMetadata();
+        if (metadata.getEncryptionKeys() != null && !metadata.getEncryptionKeys().isEmpty()) {
+            entry.setError("payload encrypted with " + metadata.getEncryptionAlgo());
+            return entry;
+        }
+        String compression = metadata.getCompression();
+        boolean compressed = !PulsarEntryParser.COMPRESSION_NONE.equals(compression);
+        if (compressed && metadata.getUncompressedSize() == null) {
+            entry.setError(compression + " payload without uncompressed size");
+            return entry;
+        }
+        int size = compressed ? metadata.getUncompressedSize() : payload.readableBytes();
+        if (size > options.getMaxPayloadBytes()) {
+            entry.setError("payload of " + size + " bytes exceeds maxPayloadBytes " + options.getMaxPayloadBytes());
+            return entry;
+        }
+        ByteBuf uncompressed;
+        try {
+            uncompressed = PulsarDecompressor.decompress(payload, compression, size);
+        } catch (DataFormatException e) {
+            entry.setError(compression + " payload not decompressed: " + e.getMessage());
+            return entry;
+        }
+        if (PulsarEntryParser.isBatch(metadata)) {
+            entry.setMessages(PulsarEntryParser.parseBatch(uncompressed, metadata.getNumMessagesInBatch()));
+        } else {
+            entry.setPayload(uncompressed.toString(StandardCharsets.UTF_8));
+        }
+        return entry;
+    }
+
+}
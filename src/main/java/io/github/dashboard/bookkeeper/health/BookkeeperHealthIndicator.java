@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.health;
+
+import io.github.dashboard.bookkeeper.cluster.BookkeeperCluster;
+import io.github.dashboard.bookkeeper.cluster.ClusterRegistry;
+import io.github.dashboard.bookkeeper.config.BookkeeperConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Up once the BookKeeper client of the default cluster is built and its ZooKeeper session connected, part of the
+ * readiness group only so a lost ZooKeeper takes the dashboard out of rotation without restarting it. The other
+ * open clusters are reported as details, they do not affect the status.
+ */
+@Component("bookkeeper")
+public class BookkeeperHealthIndicator implements HealthIndicator {
+
+    private final BookkeeperConfig config;
+
+    private final ClusterRegistry clusterRegistry;
+
+    public BookkeeperHealthIndicator(@Autowired BookkeeperConfig config,
+                                     @Autowired ClusterRegistry clusterRegistry) {
+        this.config = config;
+        this.clusterRegistry = clusterRegistry;
+    }
+
+    @Override
+    public Health health() {
+        BookkeeperCluster defaultCluster = clusterRegistry.find(config.defaultCluster);
+        Health.Builder builder = defaultCluster != null && defaultCluster.isConnected() ? Health.up() : Health.down();
+        for (BookkeeperCluster cluster : clusterRegistry.openClusters()) {
+            builder.withDetail(cluster.getName(), cluster.isConnected() ? "connected" : "disconnected");
+        }
+        return builder.build();
+    }
+
+}
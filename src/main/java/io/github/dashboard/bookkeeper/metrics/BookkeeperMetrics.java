@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.metrics;
+
+import io.github.dashboard.bookkeeper.cluster.ClusterConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.bookkeeper.client.api.LedgerEntries;
+import org.apache.bookkeeper.client.api.LedgerEntry;
+import org.apache.bookkeeper.client.api.ReadHandle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Dashboard side metrics of BookKeeper operations: a latency histogram per operation and outcome, the number of
+ * operations in flight, and the entries and bytes read and decoded. Every cluster has its own instance, its meters
+ * are tagged with the cluster name and removed when the cluster is closed.
+ */
+@Component
+public class BookkeeperMetrics {
+
+    public static final String OPEN = "open";
+
+    public static final String RECOVER = "recover";
+
+    public static final String READ = "read";
+
+    public static final String LAC = "lac";
+
+    public static final String LIST = "list";
+
+    public static final String METADATA = "metadata";
+
+    public static final String CREATE = "create";
+
+    public static final String APPEND = "append";
+
+    public static final String CLOSE = "close";
+
+    public static final String DELETE = "delete";
+
+    private static final String PREFIX = "bookkeeper.dashboard.";
+
+    private final MeterRegistry registry;
+
+    private final Tags tags;
+
+    private final List<Meter> meters = new CopyOnWriteArrayList<>();
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter readEntries;
+
+    private final Counter readBytes;
+
+    private final Counter decodedEntries;
+
+    private final Counter decodedBytes;
+
+    private final DistributionSummary requestEntries;
+
+    public BookkeeperMetrics(@Autowired MeterRegistry registry,
+                             @Autowired ClusterConfig cluster) {
+        this.registry = registry;
+        this.tags = Tags.of("cluster", cluster.name);
+        this.readEntries = add(Counter.builder(PREFIX + "read.entries").tags(tags).register(registry));
+        this.readBytes = add(Counter.builder(PREFIX + "read.bytes").baseUnit("bytes").tags(tags).register(registry));
+        this.decodedEntries = add(Counter.builder(PREFIX + "decoded.entries").tags(tags).register(registry));
+        this.decodedBytes = add(Counter.builder(PREFIX + "decoded.bytes").baseUnit("bytes").tags(tags)
+                .register(registry));
+        this.requestEntries = add(DistributionSummary.builder(PREFIX + "request.entries")
+                .description("entries returned per request")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    @PreDestroy
+    public void close() {
+        meters.forEach(registry::remove);
+        meters.clear();
+    }
+
+    /**
+     * Times the future returned by {@code operation}, which is returned as is.
+     */
+    public <T> CompletableFuture<T> record(String name, Supplier<CompletableFuture<T>> operation) {
+        AtomicInteger running = inFlight(name);
+        Timer.Sample sample = Timer.start(registry);
+        running.incrementAndGet();
+        CompletableFuture<T> future;
+        try {
+            future = operation.get();
+        } catch (RuntimeException e) {
+            running.decrementAndGet();
+            sample.stop(timer(name, "error"));
+            throw e;
+        }
+        future.whenComplete((result, e) -> {
+            running.decrementAndGet();
+            sample.stop(timer(name, e == null ? "success" : "error"));
+        });
+        return future;
+    }
+
+    /**
+     * Times every subscription to {@code mono}.
+     */
+    public <T> Mono<T> record(String name, Mono<T> mono) {
+        return Mono.defer(() -> {
+            AtomicInteger running = inFlight(name);
+            Timer.Sample sample = Timer.start(registry);
+            running.incrementAndGet();
+            return mono.doFinally(signal -> {
+                running.decrementAndGet();
+                sample.stop(timer(name, outcome(signal)));
+            });
+        });
+    }
+
+    /**
+     * {@link ReadHandle#readAsync} counting the entries and bytes read, before the entries reach the caller who may
+     * release them.
+     */
+    public CompletableFuture<LedgerEntries> readAsync(ReadHandle readHandle, long first, long last) {
+        return record(READ, () -> readHandle.readAsync(first, last)).thenApply(entries -> {
+            long bytes = 0;
+            long count = 0;
+            for (LedgerEntry ledgerEntry : entries) {
+                bytes += ledgerEntry.getLength();
+                count++;
+            }
+            readEntries.increment(count);
+            readBytes.increment(bytes);
+            return entries;
+        });
+    }
+
+    public void recordDecoded(long entries, long bytes) {
+        decodedEntries.increment(entries);
+        decodedBytes.increment(bytes);
+    }
+
+    public void recordRequestEntries(long entries) {
+        requestEntries.record(entries);
+    }
+
+    public void gauge(String name, Supplier<Number> value) {
+        add(Gauge.builder(PREFIX + name, value).tags(tags).register(registry));
+    }
+
+    /**
+     * Number of operations in flight, of every type.
+     */
+    public int inFlight() {
+        int total = 0;
+        for (AtomicInteger running : inFlight.values()) {
+            total += running.get();
+        }
+        return total;
+    }
+
+    private AtomicInteger inFlight(String name) {
+        return inFlight.computeIfAbsent(name, key -> {
+            AtomicInteger running = new AtomicInteger();
+            add(Gauge.builder(PREFIX + "operation.in.flight", running, AtomicInteger::get)
+                    .tags(tags)
+                    .tag("operation", key)
+                    .register(registry));
+            return running;
+        });
+    }
+
+    private Timer timer(String name, String outcome) {
+        return timers.computeIfAbsent(name + "/" + outcome, key -> add(Timer.builder(PREFIX + "operation")
+                .tags(tags)
+                .tag("operation", name)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)));
+    }
+
+    private <T extends Meter> T add(T meter) {
+        meters.add(meter);
+        return meter;
+    }
+
+    private static String outcome(SignalType signal) {
+        switch (signal) {
+            case ON_ERROR:
+                return "error";
+            case CANCEL:
+                return "cancelled";
+            default:
+                return "success";
+        }
+    }
+
+}
@@ -19,10 +19,12 @@
 
 package io.github.dashboard.bookkeeper.module;
 
-public enum DecodeComponent {
+public enum EntryEncoding {
 
-    Hex,
+    Raw,
+
+    Base64,
 
-    Pulsar,
+    Hex,
 
 }
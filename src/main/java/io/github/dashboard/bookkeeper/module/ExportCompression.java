@@ -19,10 +19,12 @@
 
 package io.github.dashboard.bookkeeper.module;
 
-public enum DecodeNamespace {
+public enum ExportCompression {
 
-    ManagedLedgerTopic,
+    None,
 
-    ManagedManagedLedgerSubscription,
+    Gzip,
+
+    Zstd,
 
 }
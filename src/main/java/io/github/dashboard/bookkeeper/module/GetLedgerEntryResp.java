@@ -19,6 +19,7 @@
 
 package io.github.dashboard.bookkeeper.module;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -34,6 +35,12 @@ public class GetLedgerEntryResp {
 
     private String content;
 
+    /**
+     * Set instead of {@code content} by decoders producing structured output.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Object decoded;
+
     public GetLedgerEntryResp() {
     }
 }
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.module;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+@Setter
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LedgerMetadataResp {
+
+    private long ledgerId;
+
+    private String state;
+
+    private Boolean closed;
+
+    private Integer ensembleSize;
+
+    private Integer writeQuorumSize;
+
+    private Integer ackQuorumSize;
+
+    private Long lastEntryId;
+
+    private Long length;
+
+    private Long ctime;
+
+    private String digestType;
+
+    private Map<Long, List<String>> ensembles;
+
+    private Map<String, String> customMetadata;
+
+    private Long version;
+
+    private String error;
+
+    public LedgerMetadataResp() {
+    }
+}
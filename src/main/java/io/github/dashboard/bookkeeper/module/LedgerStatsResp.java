@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.module;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+
+/**
+ * Summary of an entry range. With sampling the totals cover the sampled entries only, the estimates extrapolate
+ * them to the whole range.
+ */
+@Setter
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LedgerStatsResp {
+
+    private long ledgerId;
+
+    private long lastAddConfirmed;
+
+    private long fromEntry;
+
+    private long toEntry;
+
+    private String sampling;
+
+    private long entries;
+
+    private long totalBytes;
+
+    private Double averageBytes;
+
+    private Long estimatedEntries;
+
+    private Long estimatedBytes;
+
+    private Long minEntryId;
+
+    private Long minEntryBytes;
+
+    private Long maxEntryId;
+
+    private Long maxEntryBytes;
+
+    /**
+     * Entry count per size bucket, keyed by the exclusive upper bound of the bucket, a power of two.
+     */
+    private Map<Long, Long> sizeHistogram;
+
+    private Long pulsarEntries;
+
+    private Long pulsarMessages;
+
+    private Integer minMessagesPerBatch;
+
+    private Integer maxMessagesPerBatch;
+
+    private Double averageMessagesPerBatch;
+
+    private Long minPublishTime;
+
+    private Long maxPublishTime;
+
+    private Map<String, Long> compression;
+
+    private Long elapsedMs;
+
+    public LedgerStatsResp() {
+    }
+}
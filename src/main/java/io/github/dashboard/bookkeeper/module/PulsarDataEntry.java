@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.module;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * An entry of a Pulsar topic data ledger. {@code payload} is set for a single message, {@code messages} for a batch.
+ */
+@Setter
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PulsarDataEntry {
+
+    private Long brokerTimestamp;
+
+    private Long brokerIndex;
+
+    private Long checksum;
+
+    private Boolean checksumValid;
+
+    private PulsarMessageMetadata metadata;
+
+    private Integer payloadSize;
+
+    private String payload;
+
+    private List<PulsarSingleMessage> messages;
+
+    private String error;
+
+    public PulsarDataEntry() {
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.module;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pulsar {@code MessageMetadata}, bytes fields are hex encoded.
+ */
+@Setter
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PulsarMessageMetadata {
+
+    private String producerName;
+
+    private Long sequenceId;
+
+    private Long publishTime;
+
+    private Map<String, String> properties;
+
+    private String replicatedFrom;
+
+    private String partitionKey;
+
+    private List<String> replicateTo;
+
+    private String compression;
+
+    private Integer uncompressedSize;
+
+    private Integer numMessagesInBatch;
+
+    private Long eventTime;
+
+    private List<String> encryptionKeys;
+
+    private String encryptionAlgo;
+
+    private String schemaVersion;
+
+    private Boolean partitionKeyB64Encoded;
+
+    private String orderingKey;
+
+    private Long deliverAtTime;
+
+    private Integer markerType;
+
+    private Long txnidLeastBits;
+
+    private Long txnidMostBits;
+
+    private Long highestSequenceId;
+
+    private Boolean nullValue;
+
+    private String uuid;
+
+    private Integer numChunksFromMsg;
+
+    private Integer totalChunkMsgSize;
+
+    private Integer chunkId;
+
+    private Boolean nullPartitionKey;
+
+    public PulsarMessageMetadata() {
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.module;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+
+/**
+ * A message of a Pulsar batch: its {@code SingleMessageMetadata} and payload.
+ */
+@Setter
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PulsarSingleMessage {
+
+    private Map<String, String> properties;
+
+    private String partitionKey;
+
+    private Integer payloadSize;
+
+    private Boolean compactedOut;
+
+    private Long eventTime;
+
+    private Boolean partitionKeyB64Encoded;
+
+    private String orderingKey;
+
+    private Long sequenceId;
+
+    private Boolean nullValue;
+
+    private Boolean nullPartitionKey;
+
+    private String payload;
+
+    public PulsarSingleMessage() {
+    }
+}
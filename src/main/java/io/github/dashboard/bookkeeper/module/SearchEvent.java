@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.module;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Element of a search result stream: a {@code hit}, a periodic {@code progress} report, or the final {@code done}.
+ */
+@Setter
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SearchEvent {
+
+    public static final String HIT = "hit";
+
+    public static final String PROGRESS = "progress";
+
+    public static final String DONE = "done";
+
+    private String type;
+
+    private Long entryId;
+
+    /**
+     * Byte offset of a {@link SearchMode#Bytes} match, char offset of a {@link SearchMode#Regex} match.
+     */
+    private Integer offset;
+
+    /**
+     * Index of the matching message in a Pulsar batch.
+     */
+    private Integer messageIndex;
+
+    private String preview;
+
+    private Long scannedEntries;
+
+    private Long scannedBytes;
+
+    private Long hits;
+
+    private Long elapsedMs;
+
+    private Double entriesPerSecond;
+
+    private Double bytesPerSecond;
+
+    public SearchEvent() {
+    }
+}
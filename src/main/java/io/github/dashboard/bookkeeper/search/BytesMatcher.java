@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.search;
+
+import io.github.dashboard.bookkeeper.module.SearchEvent;
+import io.github.dashboard.bookkeeper.util.HexUtil;
+import io.netty.buffer.ByteBuf;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Boyer-Moore-Horspool search of a byte sequence, the payload is scanned in place.
+ */
+public class BytesMatcher implements EntryMatcher {
+
+    private static final int PREVIEW_BYTES = 32;
+
+    private final byte[] pattern;
+
+    private final int[] shift = new int[256];
+
+    public BytesMatcher(byte[] pattern) {
+        if (pattern.length == 0) {
+            throw new IllegalArgumentException("pattern must not be empty");
+        }
+        this.pattern = pattern;
+        Arrays.fill(shift, pattern.length);
+        for (int i = 0; i < pattern.length - 1; i++) {
+            shift[pattern[i] & 0xff] = pattern.length - 1 - i;
+        }
+    }
+
+    @Override
+    public @Nullable SearchEvent match(long entryId, ByteBuf data) {
+        int offset = indexOf(data);
+        if (offset < 0) {
+            return null;
+        }
+        SearchEvent hit = new SearchEvent();
+        hit.setType(SearchEvent.HIT);
+        hit.setEntryId(entryId);
+        hit.setOffset(offset);
+        int previewLength = Math.min(PREVIEW_BYTES, data.readableBytes() - offset);
+        hit.setPreview(HexUtil.bytes2hex(data.slice(data.readerIndex() + offset, previewLength)));
+        return hit;
+    }
+
+    /**
+     * Offset of the first occurrence relative to the reader index, -1 when absent.
+     */
+    public int indexOf(ByteBuf data) {
+        int last = pattern.length - 1;
+        if (data.hasArray()) {
+            byte[] array = data.array();
+            int from = data.arrayOffset() + data.readerIndex();
+            int end = from + data.readableBytes();
+            for (int i = from; i + last < end; i += shift[array[i + last] & 0xff]) {
+                int j = last;
+                while (array[i + j] == pattern[j]) {
+                    if (j == 0) {
+                        return i - from;
+                    }
+                    j--;
+                }
+            }
+            return -1;
+        }
+        int from = data.readerIndex();
+        int end = data.writerIndex();
+        for (int i = from; i + last < end; i += shift[data.getByte(i + last) & 0xff]) {
+            int j = last;
+            while (data.getByte(i + j) == pattern[j]) {
+                if (j == 0) {
+                    return i - from;
+                }
+                j--;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.search;
+
+import io.github.dashboard.bookkeeper.module.EntryEncoding;
+import io.github.dashboard.bookkeeper.module.SearchMode;
+import io.github.dashboard.bookkeeper.util.BkUtil;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.regex.Pattern;
+
+public class EntryMatchers {
+
+    /**
+     * Builds the matcher of a search request, invalid patterns and fields fail with an
+     * {@link IllegalArgumentException}.
+     */
+    public static EntryMatcher create(SearchMode mode, String pattern, EntryEncoding encoding,
+                                      @Nullable String field, int maxPayloadBytes) {
+        switch (mode) {
+            case Bytes:
+                return new BytesMatcher(BkUtil.decodeContent(pattern, encoding));
+            case Regex:
+                return new RegexMatcher(Pattern.compile(pattern));
+            case Pulsar:
+                if (StringUtils.isEmpty(field)) {
+                    throw new IllegalArgumentException("field is required to search Pulsar metadata");
+                }
+                return new PulsarFieldMatcher(field, pattern, maxPayloadBytes);
+            default:
+                throw new IllegalArgumentException("unsupported search mode " + mode);
+        }
+    }
+
+}
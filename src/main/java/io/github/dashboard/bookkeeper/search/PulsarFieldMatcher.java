@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.search;
+
+import io.github.dashboard.bookkeeper.decode.PulsarDecompressor;
+import io.github.dashboard.bookkeeper.decode.PulsarEntryParser;
+import io.github.dashboard.bookkeeper.module.PulsarDataEntry;
+import io.github.dashboard.bookkeeper.module.PulsarMessageMetadata;
+import io.github.dashboard.bookkeeper.module.PulsarSingleMessage;
+import io.github.dashboard.bookkeeper.module.SearchEvent;
+import io.netty.buffer.ByteBuf;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compares a field of Pulsar data entries with a value. Message level fields are also looked up in the messages of
+ * a batch, decompressing the batch when it fits {@code maxPayloadBytes}. Entries that are not Pulsar data entries
+ * never match.
+ */
+public class PulsarFieldMatcher implements EntryMatcher {
+
+    private static final String PROPERTIES_PREFIX = "properties.";
+
+    private static final Set<String> ENTRY_FIELDS = Set.of("producerName", "replicatedFrom", "uuid");
+
+    private static final Set<String> MESSAGE_FIELDS = Set.of("partitionKey", "orderingKey", "sequenceId");
+
+    private final String field;
+
+    private final String value;
+
+    private final int maxPayloadBytes;
+
+    public PulsarFieldMatcher(String field, String value, int maxPayloadBytes) {
+        if (!ENTRY_FIELDS.contains(field) && !MESSAGE_FIELDS.contains(field) && !field.startsWith(PROPERTIES_PREFIX)) {
+            throw new IllegalArgumentException("unsupported field " + field + ", expected one of " + ENTRY_FIELDS
+                    + ", " + MESSAGE_FIELDS + " or " + PROPERTIES_PREFIX + "<name>");
+        }
+        this.field = field;
+        this.value = value;
+        this.maxPayloadBytes = maxPayloadBytes;
+    }
+
+    @Override
+    public @Nullable SearchEvent match(long entryId, ByteBuf data) {
+        PulsarDataEntry entry = new PulsarDataEntry();
+        ByteBuf payload;
+        try {
+            payload = PulsarEntryParser.parseHeaders(data, entry);
+        } catch (RuntimeException e) {
+            return null;
+        }
+        PulsarMessageMetadata metadata = entry.getMetadata();
+        if (value.equals(metadataValue(metadata))) {
+            return hit(entryId, null);
+        }
+        if (ENTRY_FIELDS.contains(field) || !PulsarEntryParser.isBatch(metadata)) {
+            return null;
+        }
+        List<PulsarSingleMessage> messages;
+        try {
+            ByteBuf uncompressed = uncompress(payload, metadata);
+            if (uncompressed == null) {
+                return null;
+            }
+            messages = PulsarEntryParser.parseBatch(uncompressed, metadata.getNumMessagesInBatch(), false);
+        } catch (Exception e) {
+            return null;
+        }
+        for (int i = 0; i < messages.size(); i++) {
+            if (value.equals(messageValue(messages.get(i)))) {
+                return hit(entryId, i);
+            }
+        }
+        return null;
+    }
+
+    private @Nullable ByteBuf uncompress(ByteBuf payload, PulsarMessageMetadata metadata) throws Exception {
+        if (PulsarEntryParser.COMPRESSION_NONE.equals(metadata.getCompression())) {
+            return payload;
+        }
+        Integer size = metadata.getUncompressedSize();
+        if (size == null || size > maxPayloadBytes) {
+            return null;
+        }
+        return PulsarDecompressor.decompress(payload, metadata.getCompression(), size);
+    }
+
+    private @Nullable String metadataValue(PulsarMessageMetadata metadata) {
+        switch (field) {
+            case "producerName":
+                return metadata.getProducerName();
+            case "replicatedFrom":
+                return metadata.getReplicatedFrom();
+            case "uuid":
+                return metadata.getUuid();
+            case "partitionKey":
+                return metadata.getPartitionKey();
+            case "orderingKey":
+                return metadata.getOrderingKey();
+            case "sequenceId":
+                return metadata.getSequenceId() == null ? null : String.valueOf(metadata.getSequenceId());
+            default:
+                return property(metadata.getProperties());
+        }
+    }
+
+    private @Nullable String messageValue(PulsarSingleMessage message) {
+        switch (field) {
+            case "partitionKey":
+                return message.getPartitionKey();
+            case "orderingKey":
+                return message.getOrderingKey();
+            case "sequenceId":
+                return message.getSequenceId() == null ? null : String.valueOf(message.getSequenceId());
+            default:
+                return property(message.getProperties());
+        }
+    }
+
+    private @Nullable String property(@Nullable Map<String, String> properties) {
+        return properties == null ? null : properties.get(field.substring(PROPERTIES_PREFIX.length()));
+    }
+
+    private SearchEvent hit(long entryId, @Nullable Integer messageIndex) {
+        SearchEvent hit = new SearchEvent();
+        hit.setType(SearchEvent.HIT);
+        hit.setEntryId(entryId);
+        hit.setMessageIndex(messageIndex);
+        hit.setPreview(field + "=" + value);
+        return hit;
+    }
+
+}
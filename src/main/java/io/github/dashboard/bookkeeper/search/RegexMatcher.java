@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.search;
+
+import io.github.dashboard.bookkeeper.module.SearchEvent;
+import io.netty.buffer.ByteBuf;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class RegexMatcher implements EntryMatcher {
+
+    private static final int PREVIEW_CHARS = 64;
+
+    private final Pattern pattern;
+
+    public RegexMatcher(Pattern pattern) {
+        this.pattern = pattern;
+    }
+
+    @Override
+    public @Nullable SearchEvent match(long entryId, ByteBuf data) {
+        String content = data.toString(StandardCharsets.UTF_8);
+        Matcher matcher = pattern.matcher(content);
+        if (!matcher.find()) {
+            return null;
+        }
+        SearchEvent hit = new SearchEvent();
+        hit.setType(SearchEvent.HIT);
+        hit.setEntryId(entryId);
+        hit.setOffset(matcher.start());
+        hit.setPreview(content.substring(matcher.start(), Math.min(matcher.end(), matcher.start() + PREVIEW_CHARS)));
+        return hit;
+    }
+
+}
@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.service;
+
+import io.github.dashboard.bookkeeper.cluster.ClusterConfig;
+import io.github.dashboard.bookkeeper.config.BookkeeperConfig;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.HashedWheelTimer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.bookkeeper.client.BookKeeper;
+import org.apache.bookkeeper.conf.ClientConfiguration;
+import org.apache.bookkeeper.stats.prometheus.PrometheusMetricsProvider;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.ZooKeeper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Owns the ZooKeeper session of a cluster and the BookKeeper client built on it. Both are created in the
+ * background, so the application starts whether or not ZooKeeper is reachable, and requests wait up to
+ * {@link BookkeeperConfig#connectTimeoutMs} for the client. The session state is followed through the ZooKeeper
+ * watcher. An expired session or a client that fails to build is thrown away and created again after an
+ * exponential backoff. The clients of all clusters share the netty event loops and the request timer.
+ */
+@Slf4j
+@Service
+public class BookkeeperClientService {
+
+    private final BookkeeperConfig config;
+
+    private final ClusterConfig cluster;
+
+    private final PrometheusMetricsProvider bookkeeperStatsProvider;
+
+    private final EventLoopGroup bookkeeperEventLoopGroup;
+
+    private final HashedWheelTimer bookkeeperRequestTimer;
+
+    private final Scheduler bookkeeperScheduler;
+
+    private final List<Consumer<ZooKeeper>> connectListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * incremented by every connection attempt, events of a previous session are ignored.
+     */
+    private long generation;
+
+    private int attempts;
+
+    private boolean closed;
+
+    private ZooKeeper zooKeeper;
+
+    private Disposable reconnectTask;
+
+    private volatile Sinks.One<BookKeeper> ready = Sinks.one();
+
+    private volatile BookKeeper bookKeeper;
+
+    private volatile boolean zkConnected;
+
+    public BookkeeperClientService(@Autowired BookkeeperConfig config,
+                                   @Autowired ClusterConfig cluster,
+                                   @Autowired PrometheusMetricsProvider bookkeeperStatsProvider,
+                                   @Autowired EventLoopGroup bookkeeperEventLoopGroup,
+                                   @Autowired HashedWheelTimer bookkeeperRequestTimer,
+                                   @Autowired Scheduler bookkeeperScheduler) {
+        this.config = config;
+        this.cluster = cluster;
+        this.bookkeeperStatsProvider = bookkeeperStatsProvider;
+        this.bookkeeperEventLoopGroup = bookkeeperEventLoopGroup;
+        this.bookkeeperRequestTimer = bookkeeperRequestTimer;
+        this.bookkeeperScheduler = bookkeeperScheduler;
+    }
+
+    @PostConstruct
+    public void start() {
+        connect();
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        closed = true;
+        if (reconnectTask != null) {
+            reconnectTask.dispose();
+        }
+        detach().run();
+    }
+
+    /**
+     * Emits the client once it is ready, or an error if it is not ready within the connect timeout.
+     */
+    public Mono<BookKeeper> bookKeeper() {
+        BookKeeper client = bookKeeper;
+        if (client != null) {
+            return Mono.just(client);
+        }
+        return ready.asMono().timeout(Duration.ofMillis(config.connectTimeoutMs), Mono.error(() ->
+                new IllegalStateException("BookKeeper client of cluster " + cluster.name + " is not connected.")));
+    }
+
+    public boolean isConnected() {
+        return bookKeeper != null && zkConnected;
+    }
+
+    /**
+     * Calls {@code listener} with the ZooKeeper session of every client that gets ready, including the current one.
+     */
+    public synchronized void onConnected(Consumer<ZooKeeper> listener) {
+        connectListeners.add(listener);
+        if (bookKeeper != null) {
+            listener.accept(zooKeeper);
+        }
+    }
+
+    private synchronized void connect() {
+        if (closed) {
+            return;
+        }
+        long current = ++generation;
+        try {
+            zooKeeper = new ZooKeeper(cluster.servers, config.zkSessionTimeoutMs, event -> onEvent(current, event));
+        } catch (Exception e) {
+            log.warn("{} create zookeeper client for {} failed", cluster.name, cluster.servers, e);
+            scheduleReconnect();
+        }
+    }
+
+    private synchronized void onEvent(long eventGeneration, WatchedEvent event) {
+        if (eventGeneration != generation || closed || event.getType() != Watcher.Event.EventType.None) {
+            return;
+        }
+        switch (event.getState()) {
+            case SyncConnected:
+                zkConnected = true;
+                if (bookKeeper == null) {
+                    log.info("{} zookeeper {} connected, building bookkeeper client", cluster.name, cluster.servers);
+                    buildClient(eventGeneration, zooKeeper);
+                }
+                break;
+            case Disconnected:
+                // the zookeeper client reconnects within the session by itself
+                log.warn("{} zookeeper {} disconnected", cluster.name, cluster.servers);
+                zkConnected = false;
+                break;
+            case Expired:
+            case AuthFailed:
+                log.warn("{} zookeeper {} session {}, reconnecting", cluster.name, cluster.servers, event.getState());
+                bookkeeperScheduler.schedule(detach());
+                scheduleReconnect();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void buildClient(long clientGeneration, ZooKeeper zk) {
+        Mono.fromCallable(() -> newClient(zk))
+                .subscribeOn(bookkeeperScheduler)
+                .subscribe(client -> onClientBuilt(clientGeneration, client), e -> {
+                    log.warn("{} build bookkeeper client failed", cluster.name, e);
+                    synchronized (this) {
+                        if (clientGeneration == generation && !closed) {
+                            bookkeeperScheduler.schedule(detach());
+                            scheduleReconnect();
+                        }
+                    }
+                });
+    }
+
+    // the client shares the watched session, so an expiry is noticed by the watcher and rebuilds both
+    @SuppressWarnings("deprecation")
+    private BookKeeper newClient(ZooKeeper zk) throws Exception {
+        return BookKeeper.forConfig(clientConfiguration())
+                .zk(zk)
+                .eventLoopGroup(bookkeeperEventLoopGroup)
+                .requestTimer(bookkeeperRequestTimer)
+                .statsLogger(bookkeeperStatsProvider.getStatsLogger("bookkeeper_client")
+                        .scopeLabel("cluster", cluster.name))
+                .build();
+    }
+
+    private synchronized void onClientBuilt(long clientGeneration, BookKeeper client) {
+        if (clientGeneration != generation || closed) {
+            closeQuietly(client);
+            return;
+        }
+        bookKeeper = client;
+        ready.tryEmitValue(client);
+        attempts = 0;
+        log.info("{} bookkeeper client ready, {} ms after jvm start", cluster.name,
+                ManagementFactory.getRuntimeMXBean().getUptime());
+        for (Consumer<ZooKeeper> listener : connectListeners) {
+            try {
+                listener.accept(zooKeeper);
+            } catch (RuntimeException e) {
+                log.warn("{} bookkeeper connect listener failed", cluster.name, e);
+            }
+        }
+    }
+
+    private ClientConfiguration clientConfiguration() {
+        ClientConfiguration clientConfiguration = new ClientConfiguration();
+        clientConfiguration.setMetadataServiceUri(config.connectPrefix
+                + "://" + cluster.servers + cluster.ledgersRootPath);
+        clientConfiguration.setZkTimeout(config.zkSessionTimeoutMs);
+        clientConfiguration.setNumWorkerThreads(config.clientWorkerThreads);
+        return clientConfiguration;
+    }
+
+    private void scheduleReconnect() {
+        if (closed) {
+            return;
+        }
+        long delay = Math.min(config.reconnectMaxBackoffMs,
+                config.reconnectInitialBackoffMs << Math.min(attempts, 20));
+        attempts++;
+        log.info("{} reconnect to zookeeper {} in {} ms", cluster.name, cluster.servers, delay);
+        reconnectTask = Mono.delay(Duration.ofMillis(delay), bookkeeperScheduler).subscribe(tick -> connect());
+    }
+
+    /**
+     * Detaches the current client and session, the caller holds the lock. Closing them may block, so it is left to
+     * the returned task.
+     */
+    private Runnable detach() {
+        zkConnected = false;
+        BookKeeper client = bookKeeper;
+        ZooKeeper zk = zooKeeper;
+        if (client != null) {
+            ready = Sinks.one();
+        }
+        bookKeeper = null;
+        zooKeeper = null;
+        return () -> {
+            if (client != null) {
+                closeQuietly(client);
+            }
+            if (zk != null) {
+                closeQuietly(zk);
+            }
+        };
+    }
+
+    private static void closeQuietly(BookKeeper client) {
+        try {
+            client.close();
+        } catch (Exception e) {
+            log.warn("close bookkeeper client failed", e);
+        }
+    }
+
+    private static void closeQuietly(ZooKeeper zk) {
+        try {
+            zk.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.github.dashboard.bookkeeper.config.BookkeeperConfig;
+import io.github.dashboard.bookkeeper.decode.EntryDecoder;
+import io.github.dashboard.bookkeeper.module.CacheStatsResp;
+import io.github.dashboard.bookkeeper.module.DecodeOptions;
+import io.github.dashboard.bookkeeper.module.GetLedgerEntryResp;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.util.IllegalReferenceCountException;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Byte bounded caches of entries of sealed ledgers, which never change: the raw payloads, and the responses decoded
+ * from them per decoder and decode options. Both are Caffeine caches, evicting by weight with W-TinyLFU. Payloads
+ * are kept in unpooled direct buffers when off heap is enabled.
+ */
+@Service
+public class EntryCacheService {
+
+    /**
+     * Rough per entry overhead of keys, cache nodes and the response object.
+     */
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final BookkeeperConfig config;
+
+    private final Cache<EntryKey, ByteBuf> payloadCache;
+
+    private final Cache<DecodedEntryKey, GetLedgerEntryResp> decodedCache;
+
+    public EntryCacheService(@Autowired BookkeeperConfig config) {
+        this.config = config;
+        this.payloadCache = Caffeine.newBuilder()
+                .maximumWeight(config.entryCacheMaxBytes)
+                .weigher((EntryKey key, ByteBuf payload) -> payload.capacity() + ENTRY_OVERHEAD)
+                .removalListener(EntryCacheService::onPayloadRemoval)
+                .recordStats()
+                .build();
+        this.decodedCache = Caffeine.newBuilder()
+                .maximumWeight(config.decodedEntryCacheMaxBytes)
+                .weigher((DecodedEntryKey key, GetLedgerEntryResp resp) -> weigh(resp))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Only entries of sealed ledgers are cached, an open ledger may still be recovered and truncated to its LAC.
+     */
+    public boolean isCacheable(boolean ledgerClosed) {
+        return config.entryCacheEnabled && ledgerClosed;
+    }
+
+    public static String decoderKey(EntryDecoder decoder, DecodeOptions options) {
+        return decoder.getComponent() + "/" + decoder.getNamespace() + "/" + options.isPayload() + "/"
+                + options.getMaxPayloadBytes();
+    }
+
+    public @Nullable GetLedgerEntryResp getDecoded(long ledgerId, long entryId, String decoderKey) {
+        return decodedCache.getIfPresent(new DecodedEntryKey(ledgerId, entryId, decoderKey));
+    }
+
+    public void putDecoded(long ledgerId, long entryId, String decoderKey, GetLedgerEntryResp resp) {
+        decodedCache.put(new DecodedEntryKey(ledgerId, entryId, decoderKey), resp);
+    }
+
+    /**
+     * Returns a retained duplicate of the cached payload that the caller must release, or null.
+     */
+    public @Nullable ByteBuf getPayload(long ledgerId, long entryId) {
+        ByteBuf payload = payloadCache.getIfPresent(new EntryKey(ledgerId, entryId));
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return payload.retainedDuplicate();
+        } catch (IllegalReferenceCountException e) {
+            // evicted and released concurrently, the buffers are unpooled so they are never reused
+            return null;
+        }
+    }
+
+    /**
+     * Caches a copy of {@code payload}, the buffer itself stays owned by the caller.
+     */
+    public void putPayload(long ledgerId, long entryId, ByteBuf payload) {
+        ByteBuf copy;
+        if (config.entryCacheOffHeap) {
+            copy = Unpooled.directBuffer(payload.readableBytes(), payload.readableBytes());
+            copy.writeBytes(payload, payload.readerIndex(), payload.readableBytes());
+        } else {
+            copy = Unpooled.wrappedBuffer(ByteBufUtil.getBytes(payload));
+        }
+        payloadCache.put(new EntryKey(ledgerId, entryId), copy);
+    }
+
+    public void invalidateLedger(long ledgerId) {
+        payloadCache.asMap().keySet().removeIf(key -> key.ledgerId == ledgerId);
+        decodedCache.asMap().keySet().removeIf(key -> key.ledgerId == ledgerId);
+    }
+
+    public CacheStatsResp payloadStats() {
+        return toResp(payloadCache);
+    }
+
+    public CacheStatsResp decodedStats() {
+        return toResp(decodedCache);
+    }
+
+    @PreDestroy
+    public void close() {
+        payloadCache.invalidateAll();
+        decodedCache.invalidateAll();
+    }
+
+    private static void onPayloadRemoval(EntryKey key, ByteBuf payload, RemovalCause cause) {
+        if (payload != null) {
+            payload.release();
+        }
+    }
+
+    private static int weigh(GetLedgerEntryResp resp) {
+        long weight = ENTRY_OVERHEAD;
+        if (resp.getContent() != null) {
+            weight += resp.getContent().length() * 2L;
+        }
+        if (resp.getDecoded() != null) {
+            // structured results are not measured, assume a few times the raw size
+            weight += resp.getLength() * 4;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, weight);
+    }
+
+    private static CacheStatsResp toResp(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        CacheStatsResp resp = new CacheStatsResp();
+        resp.setSize(cache.estimatedSize());
+        resp.setHitCount(stats.hitCount());
+        resp.setMissCount(stats.missCount());
+        resp.setEvictionCount(stats.evictionCount());
+        resp.setLoadFailureCount(stats.loadFailureCount());
+        return resp;
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static class EntryKey {
+
+        private final long ledgerId;
+
+        private final long entryId;
+
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static class DecodedEntryKey {
+
+        private final long ledgerId;
+
+        private final long entryId;
+
+        private final String decoderKey;
+
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Background jobs by id. A job is kept while it runs, however long that takes, and for the retention after it ends.
+ * The job has to be put again when it ends, the retention is counted from that put.
+ */
+final class JobCache<T> {
+
+    private final Cache<String, T> cache;
+
+    JobCache(long retentionSeconds, Predicate<T> running) {
+        long retentionNanos = TimeUnit.SECONDS.toNanos(retentionSeconds);
+        this.cache = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, T>() {
+                    @Override
+                    public long expireAfterCreate(String jobId, T job, long currentTime) {
+                        return running.test(job) ? Long.MAX_VALUE : retentionNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String jobId, T job, long currentTime, long currentDuration) {
+                        return expireAfterCreate(jobId, job, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String jobId, T job, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    void put(String jobId, T job) {
+        cache.put(jobId, job);
+    }
+
+    @Nullable T get(String jobId) {
+        return cache.getIfPresent(jobId);
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.service;
+
+import io.github.dashboard.bookkeeper.config.BookkeeperConfig;
+import io.github.dashboard.bookkeeper.metrics.BookkeeperMetrics;
+import io.github.dashboard.bookkeeper.module.DeleteLedgerFailure;
+import io.github.dashboard.bookkeeper.module.DeleteLedgersJobResp;
+import io.github.dashboard.bookkeeper.module.JobState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes ledgers concurrently as background jobs. The delete rate is capped so a large cleanup does not overwhelm
+ * the metadata store, and a failed ledger is recorded instead of aborting the job.
+ */
+@Slf4j
+@Service
+public class LedgerDeleteService {
+
+    private final BookkeeperConfig config;
+
+    private final BookkeeperClientService bookkeeperClientService;
+
+    private final ReadHandleCacheService readHandleCacheService;
+
+    private final LedgerIndexService ledgerIndexService;
+
+    private final LedgerMetadataService ledgerMetadataService;
+
+    private final EntryCacheService entryCacheService;
+
+    private final JobCache<DeleteJob> jobs;
+
+    private final BookkeeperMetrics metrics;
+
+    public LedgerDeleteService(@Autowired BookkeeperConfig config,
+                               @Autowired BookkeeperClientService bookkeeperClientService,
+                               @Autowired ReadHandleCacheService readHandleCacheService,
+                               @Autowired LedgerIndexService ledgerIndexService,
+                               @Autowired LedgerMetadataService ledgerMetadataService,
+                               @Autowired EntryCacheService entryCacheService,
+                               @Autowired BookkeeperMetrics metrics) {
+        this.config = config;
+        this.bookkeeperClientService = bookkeeperClientService;
+        this.readHandleCacheService = readHandleCacheService;
+        this.ledgerIndexService = ledgerIndexService;
+        this.ledgerMetadataService = ledgerMetadataService;
+        this.entryCacheService = entryCacheService;
+        this.metrics = metrics;
+        this.jobs = new JobCache<>(config.jobRetentionSeconds, job -> job.state == JobState.Running);
+    }
+
+    public Mono<Void> deleteLedger(long ledgerId) {
+        return bookkeeperClientService.bookKeeper()
+                .flatMap(bookKeeper -> Mono.fromFuture(() -> metrics.record(BookkeeperMetrics.DELETE,
+                        () -> bookKeeper.newDeleteLedgerOp().withLedgerId(ledgerId).execute())))
+                .doOnSuccess(ignore -> {
+                    readHandleCacheService.invalidate(ledgerId);
+                    ledgerIndexService.remove(ledgerId);
+                    ledgerMetadataService.invalidate(ledgerId);
+                    entryCacheService.invalidateLedger(ledgerId);
+                });
+    }
+
+    public DeleteLedgersJobResp submit(List<Long> ledgerIds, int concurrency, int opsPerSecond) {
+        return start(ledgerIds, concurrency, opsPerSecond).toResp();
+    }
+
+    /**
+     * Runs a delete job and completes once every ledger has been attempted.
+     */
+    public Mono<DeleteLedgersJobResp> run(List<Long> ledgerIds) {
+        DeleteJob job = start(ledgerIds, config.deleteConcurrency, config.deleteOpsPerSecond);
+        return job.done.asMono().then(Mono.fromSupplier(job::toResp));
+    }
+
+    public DeleteLedgersJobResp getJob(String jobId) {
+        DeleteJob job = jobs.get(jobId);
+        return job == null ? null : job.toResp();
+    }
+
+    public DeleteLedgersJobResp cancelJob(String jobId) {
+        DeleteJob job = jobs.get(jobId);
+        if (job == null) {
+            return null;
+        }
+        job.disposable.dispose();
+        return job.toResp();
+    }
+
+    private DeleteJob start(List<Long> ledgerIds, int concurrency, int opsPerSecond) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive");
+        }
+        DeleteJob job = new DeleteJob(UUID.randomUUID().toString(), ledgerIds.size());
+        jobs.put(job.jobId, job);
+        Flux<Long> source = Flux.fromIterable(ledgerIds);
+        if (opsPerSecond > 0) {
+            source = source.delayElements(Duration.ofNanos(TimeUnit.SECONDS.toNanos(1) / opsPerSecond));
+        }
+        log.info("delete job {} started, {} ledgers", job.jobId, job.total);
+        job.disposable = source
+                .flatMap(ledgerId -> deleteLedger(ledgerId)
+                        .doOnSuccess(ignore -> job.deleted.add(ledgerId))
+                        .onErrorResume(e -> {
+                            log.warn("delete job {} failed to delete ledger {}", job.jobId, ledgerId, e);
+                            job.failures.add(new DeleteLedgerFailure(ledgerId, e.getMessage()));
+                            return Mono.empty();
+                        }), concurrency)
+                .doFinally(signal -> {
+                    job.finish(signal == SignalType.CANCEL ? JobState.Cancelled : JobState.Finished);
+                    jobs.put(job.jobId, job);
+                })
+                .subscribe();
+        return job;
+    }
+
+    private static class DeleteJob {
+
+        private final String jobId;
+
+        private final int total;
+
+        private final long startTime = System.currentTimeMillis();
+
+        private final Queue<Long> deleted = new ConcurrentLinkedQueue<>();
+
+        private final Queue<DeleteLedgerFailure> failures = new ConcurrentLinkedQueue<>();
+
+        private final Sinks.Empty<Void> done = Sinks.empty();
+
+        private volatile JobState state = JobState.Running;
+
+        private volatile long endTime;
+
+        private volatile Disposable disposable;
+
+        DeleteJob(String jobId, int total) {
+            this.jobId = jobId;
+            this.total = total;
+        }
+
+        void finish(JobState finalState) {
+            endTime = System.currentTimeMillis();
+            state = finalState;
+            log.info("delete job {} {}, {} deleted, {} failed", jobId, finalState, deleted.size(), failures.size());
+            done.tryEmitEmpty();
+        }
+
+        DeleteLedgersJobResp toResp() {
+            DeleteLedgersJobResp resp = new DeleteLedgersJobResp();
+            resp.setJobId(jobId);
+            resp.setState(state);
+            resp.setTotal(total);
+            resp.setDeletedLedgerIds(deleted.stream().mapToLong(Long::longValue).toArray());
+            resp.setFailures(new ArrayList<>(failures));
+            resp.setStartTime(startTime);
+            resp.setEndTime(endTime);
+            return resp;
+        }
+    }
+
+}
@@ -19,23 +19,99 @@
 
 package io.github.dashboard.bookkeeper.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.github.dashboard.bookkeeper.config.BookkeeperConfig;
+import io.github.dashboard.bookkeeper.metrics.BookkeeperMetrics;
+import io.github.dashboard.bookkeeper.module.CacheStatsResp;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.bookkeeper.client.LedgerHandle;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.Duration;
 
+/**
+ * Write handles of the ledgers created through the dashboard. The registry is bounded by size and idle time, a
+ * handle that falls out of it is closed, which seals its ledger.
+ */
+@Slf4j
 @Service
 public class LedgerHandleService {
 
-    private final Map<Long, LedgerHandle> ledgerHandleMap = new ConcurrentHashMap<>();
+    private final Cache<Long, LedgerHandle> ledgerHandleCache;
+
+    private final BookkeeperMetrics metrics;
+
+    public LedgerHandleService(@Autowired BookkeeperConfig config,
+                               @Autowired BookkeeperMetrics metrics) {
+        this.metrics = metrics;
+        this.ledgerHandleCache = Caffeine.newBuilder()
+                .maximumSize(config.writeHandleMax)
+                .expireAfterAccess(Duration.ofSeconds(config.writeHandleIdleSeconds))
+                // idle handles are closed on time rather than on the next cache access
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener(this::onRemoval)
+                .recordStats()
+                .build();
+        metrics.gauge("write.handles", ledgerHandleCache::estimatedSize);
+    }
 
     public void putLedgerHandle(long ledgerId, LedgerHandle ledgerHandle) {
-        ledgerHandleMap.put(ledgerId, ledgerHandle);
+        ledgerHandleCache.put(ledgerId, ledgerHandle);
     }
 
     public LedgerHandle getLedgerHandle(long ledgerId) {
-        return ledgerHandleMap.get(ledgerId);
+        return ledgerHandleCache.getIfPresent(ledgerId);
+    }
+
+    /**
+     * Removes the handle from the registry and closes it, which seals the ledger.
+     */
+    public Mono<Void> closeLedgerHandle(long ledgerId) {
+        LedgerHandle ledgerHandle = ledgerHandleCache.asMap().remove(ledgerId);
+        if (ledgerHandle == null) {
+            return Mono.error(new IllegalStateException("This ledger is not owned by me."));
+        }
+        return Mono.fromFuture(() -> metrics.record(BookkeeperMetrics.CLOSE, ledgerHandle::closeAsync));
+    }
+
+    public CacheStatsResp stats() {
+        CacheStats stats = ledgerHandleCache.stats();
+        CacheStatsResp resp = new CacheStatsResp();
+        resp.setSize(ledgerHandleCache.estimatedSize());
+        resp.setHitCount(stats.hitCount());
+        resp.setMissCount(stats.missCount());
+        resp.setEvictionCount(stats.evictionCount());
+        resp.setLoadFailureCount(stats.loadFailureCount());
+        return resp;
+    }
+
+    @PreDestroy
+    public void close() {
+        ledgerHandleCache.asMap().forEach((ledgerId, ledgerHandle) -> closeQuietly(ledgerId, ledgerHandle));
+        ledgerHandleCache.invalidateAll();
+    }
+
+    private void onRemoval(Long ledgerId, LedgerHandle ledgerHandle, RemovalCause cause) {
+        // explicit removals are closed by the caller
+        if (ledgerHandle == null || cause == RemovalCause.EXPLICIT) {
+            return;
+        }
+        log.info("{} write handle removed, cause {}", ledgerId, cause);
+        closeQuietly(ledgerId, ledgerHandle);
+    }
+
+    private static void closeQuietly(Long ledgerId, LedgerHandle ledgerHandle) {
+        ledgerHandle.closeAsync().exceptionally(e -> {
+            log.warn("{} close write handle failed", ledgerId, e);
+            return null;
+        });
     }
 
 }
@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.service;
+
+import io.github.dashboard.bookkeeper.cluster.ClusterConfig;
+import io.github.dashboard.bookkeeper.config.BookkeeperConfig;
+import io.github.dashboard.bookkeeper.module.IdEncoding;
+import io.github.dashboard.bookkeeper.module.LedgerIdPage;
+import io.github.dashboard.bookkeeper.util.BkUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.zookeeper.AddWatchMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.ZooKeeper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory index of the ledger ids, so listing and counting ledgers does not scan the metadata store per request.
+ * The ids are kept in a sorted long array, loaded by a full scan and refreshed periodically. Between two scans the
+ * index follows ledger znode creations and deletions through a persistent recursive watch, which are kept in two
+ * small delta sets until the next scan folds them in.
+ * Until the first scan finishes the requests fall back to {@link LedgerListService}. The watch is installed and a
+ * scan started whenever {@link BookkeeperClientService} gets a new session, scheduled scans are skipped while it is
+ * not connected.
+ */
+@Slf4j
+@Service
+public class LedgerIndexService {
+
+    private final BookkeeperConfig config;
+
+    private final ClusterConfig cluster;
+
+    private final BookkeeperClientService bookkeeperClientService;
+
+    private final LedgerListService ledgerListService;
+
+    private final Object lock = new Object();
+
+    /**
+     * ids added since the last scan and not part of {@link #ledgerIds}.
+     */
+    private final NavigableSet<Long> added = new ConcurrentSkipListSet<>();
+
+    /**
+     * ids removed since the last scan that are still part of {@link #ledgerIds}.
+     */
+    private final Set<Long> removed = ConcurrentHashMap.newKeySet();
+
+    private volatile long[] ledgerIds = new long[0];
+
+    private volatile boolean loaded;
+
+    private Disposable refreshTask;
+
+    public LedgerIndexService(@Autowired BookkeeperConfig config,
+                              @Autowired ClusterConfig cluster,
+                              @Autowired BookkeeperClientService bookkeeperClientService,
+                              @Autowired LedgerListService ledgerListService) {
+        this.config = config;
+        this.cluster = cluster;
+        this.bookkeeperClientService = bookkeeperClientService;
+        this.ledgerListService = ledgerListService;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.ledgerIndexEnabled) {
+            return;
+        }
+        bookkeeperClientService.onConnected(this::onConnected);
+        refreshTask = Flux.interval(Duration.ofSeconds(config.ledgerIndexRefreshSeconds))
+                .onBackpressureDrop()
+                .filter(tick -> bookkeeperClientService.isConnected())
+                .concatMap(tick -> refreshQuietly())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (refreshTask != null) {
+            refreshTask.dispose();
+        }
+    }
+
+    public Mono<Void> refresh() {
+        long start = System.currentTimeMillis();
+        return ledgerListService.scanLedgerIds()
+                .doOnNext(scanned -> {
+                    replace(scanned);
+                    log.info("ledger index refreshed, {} ledgers in {} ms", scanned.length,
+                            System.currentTimeMillis() - start);
+                })
+                .then();
+    }
+
+    public void add(long ledgerId) {
+        synchronized (lock) {
+            removed.remove(ledgerId);
+            if (Arrays.binarySearch(ledgerIds, ledgerId) < 0) {
+                added.add(ledgerId);
+            }
+        }
+    }
+
+    public void remove(long ledgerId) {
+        synchronized (lock) {
+            added.remove(ledgerId);
+            if (Arrays.binarySearch(ledgerIds, ledgerId) >= 0) {
+                removed.add(ledgerId);
+            }
+        }
+    }
+
+    public Flux<Long> listLedgers() {
+        if (!loaded) {
+            return ledgerListService.listLedgers();
+        }
+        return Flux.generate(() -> -1L, (after, sink) -> {
+            long next = nextLedgerId(after);
+            if (next < 0) {
+                sink.complete();
+            } else {
+                sink.next(next);
+            }
+            return next;
+        });
+    }
+
+    public Mono<LedgerIdPage> listLedgerPage(long after, long toLedger, int limit, IdEncoding encoding) {
+        if (!loaded) {
+            return ledgerListService.listLedgerPage(after, toLedger, limit, encoding);
+        }
+        return Mono.fromSupplier(() -> {
+            long[] buffer = new long[limit];
+            int size = 0;
+            boolean more = false;
+            for (long next = nextLedgerId(after); next >= 0 && next <= toLedger; next = nextLedgerId(next)) {
+                if (size == limit) {
+                    more = true;
+                    break;
+                }
+                buffer[size++] = next;
+            }
+            return BkUtil.toLedgerIdPage(size == limit ? buffer : Arrays.copyOf(buffer, size), more, encoding);
+        });
+    }
+
+    public Mono<Long> countLedgers(long fromLedger, long toLedger) {
+        if (!loaded) {
+            return ledgerListService.listLedgers()
+                    .filter(ledgerId -> ledgerId >= fromLedger && ledgerId <= toLedger)
+                    .count();
+        }
+        return Mono.fromSupplier(() -> {
+            long[] snapshot = ledgerIds;
+            long count = upperBound(snapshot, toLedger) - lowerBound(snapshot, fromLedger);
+            for (long ledgerId : removed) {
+                if (ledgerId >= fromLedger && ledgerId <= toLedger) {
+                    count--;
+                }
+            }
+            return count + added.subSet(fromLedger, true, toLedger, true).size();
+        });
+    }
+
+    /**
+     * Watches the ledgers path with the session of a newly ready client and rescans the ledgers, changes made
+     * while no session was watching are otherwise missed.
+     */
+    private void onConnected(ZooKeeper zooKeeper) {
+        if (config.ledgerIndexWatch) {
+            zooKeeper.addWatch(cluster.ledgersRootPath, this::onEvent, AddWatchMode.PERSISTENT_RECURSIVE,
+                    (rc, path, ctx) -> {
+                        if (rc != KeeperException.Code.OK.intValue()) {
+                            log.warn("watch ledgers under {} failed, rc {}", path, rc);
+                        }
+                    }, null);
+        }
+        refreshQuietly().subscribe();
+    }
+
+    private Mono<Void> refreshQuietly() {
+        return refresh().onErrorResume(e -> {
+            log.warn("refresh ledger index failed", e);
+            return Mono.empty();
+        });
+    }
+
+    /**
+     * Returns the smallest indexed ledger id greater than {@code after}, or -1 when there is none.
+     */
+    private long nextLedgerId(long after) {
+        long[] snapshot = ledgerIds;
+        int index = upperBound(snapshot, after);
+        Iterator<Long> extra = added.tailSet(after, false).iterator();
+        long nextExtra = extra.hasNext() ? extra.next() : -1;
+        while (index < snapshot.length) {
+            long candidate = snapshot[index++];
+            if (nextExtra >= 0 && nextExtra < candidate) {
+                return nextExtra;
+            }
+            if (!removed.contains(candidate)) {
+                return candidate;
+            }
+        }
+        return nextExtra;
+    }
+
+    private void replace(long[] scanned) {
+        synchronized (lock) {
+            ledgerIds = scanned;
+            // a change seen by the watch during the scan may or may not be part of the scan result
+            added.removeIf(ledgerId -> Arrays.binarySearch(scanned, ledgerId) >= 0);
+            removed.removeIf(ledgerId -> Arrays.binarySearch(scanned, ledgerId) < 0);
+            loaded = true;
+        }
+    }
+
+    private void onEvent(WatchedEvent event) {
+        if (event.getPath() == null) {
+            return;
+        }
+        long ledgerId = BkUtil.parseLedgerId(cluster.ledgersRootPath, event.getPath());
+        if (ledgerId < 0) {
+            return;
+        }
+        if (event.getType() == Watcher.Event.EventType.NodeCreated) {
+            add(ledgerId);
+        } else if (event.getType() == Watcher.Event.EventType.NodeDeleted) {
+            remove(ledgerId);
+        }
+    }
+
+    /**
+     * Index of the first element not less than {@code key}, the ids are unique.
+     */
+    private static int lowerBound(long[] sorted, long key) {
+        int index = Arrays.binarySearch(sorted, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Index of the first element greater than {@code key}, the ids are unique.
+     */
+    private static int upperBound(long[] sorted, long key) {
+        int index = Arrays.binarySearch(sorted, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+}
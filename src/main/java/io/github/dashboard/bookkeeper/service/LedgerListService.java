@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.service;
+
+import io.github.dashboard.bookkeeper.metrics.BookkeeperMetrics;
+import io.github.dashboard.bookkeeper.module.IdEncoding;
+import io.github.dashboard.bookkeeper.module.LedgerIdPage;
+import io.github.dashboard.bookkeeper.util.BkUtil;
+import org.apache.bookkeeper.client.api.LedgersIterator;
+import org.apache.bookkeeper.client.api.ListLedgersResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The ledger iterator may go back to the metadata store while advancing, so it is drained on the bounded
+ * bookkeeper scheduler instead of the event loop.
+ */
+@Service
+public class LedgerListService {
+
+    private final BookkeeperClientService bookkeeperClientService;
+
+    private final Scheduler bookkeeperScheduler;
+
+    private final BookkeeperMetrics metrics;
+
+    public LedgerListService(@Autowired BookkeeperClientService bookkeeperClientService,
+                             @Autowired Scheduler bookkeeperScheduler,
+                             @Autowired BookkeeperMetrics metrics) {
+        this.bookkeeperClientService = bookkeeperClientService;
+        this.bookkeeperScheduler = bookkeeperScheduler;
+        this.metrics = metrics;
+    }
+
+    public Flux<Long> listLedgers() {
+        return listLedgersOp()
+                .flatMapMany(response -> Flux.<Long, LedgersIterator>generate(response::iterator,
+                                (ledgersIterator, sink) -> {
+                                    try {
+                                        if (ledgersIterator.hasNext()) {
+                                            sink.next(ledgersIterator.next());
+                                        } else {
+                                            sink.complete();
+                                        }
+                                    } catch (IOException e) {
+                                        sink.error(e);
+                                    }
+                                    return ledgersIterator;
+                                })
+                        .subscribeOn(bookkeeperScheduler));
+    }
+
+    /**
+     * Scans every ledger id into a sorted array.
+     */
+    public Mono<long[]> scanLedgerIds() {
+        return listLedgersOp()
+                .flatMap(response -> Mono.fromCallable(() -> {
+                    long[] buffer = new long[1024];
+                    int size = 0;
+                    LedgersIterator ledgersIterator = response.iterator();
+                    while (ledgersIterator.hasNext()) {
+                        if (size == buffer.length) {
+                            buffer = Arrays.copyOf(buffer, size * 2);
+                        }
+                        buffer[size++] = ledgersIterator.next();
+                    }
+                    long[] ledgerIds = Arrays.copyOf(buffer, size);
+                    Arrays.sort(ledgerIds);
+                    return ledgerIds;
+                }).subscribeOn(bookkeeperScheduler));
+    }
+
+    /**
+     * Returns up to {@code limit} ledger ids in (after, toLedger]. The ledger managers iterate ledger ranges in
+     * ascending order, so the scan stops as soon as the page is full or the range is passed. The iterator can not
+     * seek though, every page walks the ranges below {@code after} again, so a page costs O(position) metadata
+     * reads. This is the fallback for a disabled {@link LedgerIndexService}, which pages in O(limit).
+     */
+    public Mono<LedgerIdPage> listLedgerPage(long after, long toLedger, int limit, IdEncoding encoding) {
+        return listLedgersOp()
+                .flatMap(response -> Mono.fromCallable(() -> scanPage(response, after, toLedger, limit, encoding))
+                        .subscribeOn(bookkeeperScheduler));
+    }
+
+    private Mono<ListLedgersResult> listLedgersOp() {
+        return bookkeeperClientService.bookKeeper().flatMap(bookKeeper -> Mono.fromFuture(() ->
+                metrics.record(BookkeeperMetrics.LIST, () -> bookKeeper.newListLedgersOp().execute())));
+    }
+
+    private static LedgerIdPage scanPage(ListLedgersResult response, long after, long toLedger, int limit,
+                                         IdEncoding encoding) throws IOException {
+        long[] buffer = new long[limit];
+        int size = 0;
+        boolean more = false;
+        LedgersIterator ledgersIterator = response.iterator();
+        while (ledgersIterator.hasNext()) {
+            long ledgerId = ledgersIterator.next();
+            if (ledgerId <= after) {
+                continue;
+            }
+            if (ledgerId > toLedger) {
+                break;
+            }
+            if (size == limit) {
+                more = true;
+                break;
+            }
+            buffer[size++] = ledgerId;
+        }
+        return BkUtil.toLedgerIdPage(size == limit ? buffer : Arrays.copyOf(buffer, size), more, encoding);
+    }
+
+}
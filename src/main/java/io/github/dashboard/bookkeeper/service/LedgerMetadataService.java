@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.github.dashboard.bookkeeper.config.BookkeeperConfig;
+import io.github.dashboard.bookkeeper.metrics.BookkeeperMetrics;
+import io.github.dashboard.bookkeeper.module.CacheStatsResp;
+import io.github.dashboard.bookkeeper.module.LedgerMetadataResp;
+import org.apache.bookkeeper.client.api.LedgerMetadata;
+import org.apache.bookkeeper.versioning.LongVersion;
+import org.apache.bookkeeper.versioning.Versioned;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads ledger metadata straight from the ledger manager, without opening the ledger. The versioned metadata is
+ * cached, a sealed ledger's metadata does not change anymore and is kept much longer than an open one's.
+ */
+@Service
+public class LedgerMetadataService {
+
+    private final BookkeeperConfig config;
+
+    private final AsyncLoadingCache<Long, Versioned<LedgerMetadata>> cache;
+
+    private final BookkeeperMetrics metrics;
+
+    public LedgerMetadataService(@Autowired BookkeeperConfig config,
+                                 @Autowired BookkeeperClientService bookkeeperClientService,
+                                 @Autowired BookkeeperMetrics metrics) {
+        this.config = config;
+        this.metrics = metrics;
+        long openTtl = TimeUnit.SECONDS.toNanos(config.metadataOpenTtlSeconds);
+        long closedTtl = TimeUnit.SECONDS.toNanos(config.metadataClosedTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.metadataCacheSize)
+                .expireAfter(new Expiry<Long, Versioned<LedgerMetadata>>() {
+                    @Override
+                    public long expireAfterCreate(Long ledgerId, Versioned<LedgerMetadata> metadata,
+                                                  long currentTime) {
+                        return metadata.getValue().isClosed() ? closedTtl : openTtl;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long ledgerId, Versioned<LedgerMetadata> metadata,
+                                                  long currentTime, long currentDuration) {
+                        return expireAfterCreate(ledgerId, metadata, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long ledgerId, Versioned<LedgerMetadata> metadata,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync((ledgerId, executor) -> bookkeeperClientService.bookKeeper().toFuture()
+                        .thenCompose(bookKeeper -> metrics.record(BookkeeperMetrics.METADATA,
+                                () -> bookKeeper.getLedgerManager().readLedgerMetadata(ledgerId))));
+    }
+
+    public Mono<LedgerMetadataResp> getLedgerMetadata(long ledgerId) {
+        // the cached future is shared by all callers, a cancelled subscriber must not cancel it
+        return Mono.fromFuture(() -> cache.get(ledgerId), true).map(metadata -> toResp(ledgerId, metadata));
+    }
+
+    /**
+     * Fetches the metadata of several ledgers in parallel, in the order of {@code ledgerIds}. A ledger that fails is
+     * returned with its error instead of failing the batch.
+     */
+    public Flux<LedgerMetadataResp> getLedgerMetadataList(List<Long> ledgerIds) {
+        return Flux.fromIterable(ledgerIds)
+                .flatMapSequential(ledgerId -> getLedgerMetadata(ledgerId).onErrorResume(e -> {
+                    LedgerMetadataResp resp = new LedgerMetadataResp();
+                    resp.setLedgerId(ledgerId);
+                    resp.setError(e.getMessage());
+                    return Mono.just(resp);
+                }), config.metadataConcurrency);
+    }
+
+    public void invalidate(long ledgerId) {
+        cache.synchronous().invalidate(ledgerId);
+    }
+
+    public CacheStatsResp stats() {
+        CacheStats stats = cache.synchronous().stats();
+        CacheStatsResp resp = new CacheStatsResp();
+        resp.setSize(cache.synchronous().estimatedSize());
+        resp.setHitCount(stats.hitCount());
+        resp.setMissCount(stats.missCount());
+        resp.setEvictionCount(stats.evictionCount());
+        resp.setLoadFailureCount(stats.loadFailureCount());
+        return resp;
+    }
+
+    private static LedgerMetadataResp toResp(long ledgerId, Versioned<LedgerMetadata> versioned) {
+        LedgerMetadata metadata = versioned.getValue();
+        LedgerMetadataResp resp = new LedgerMetadataResp();
+        resp.setLedgerId(ledgerId);
+        resp.setState(metadata.getState().name());
+        resp.setClosed(metadata.isClosed());
+        resp.setEnsembleSize(metadata.getEnsembleSize());
+        resp.setWriteQuorumSize(metadata.getWriteQuorumSize());
+        resp.setAckQuorumSize(metadata.getAckQuorumSize());
+        resp.setLastEntryId(metadata.getLastEntryId());
+        resp.setLength(metadata.getLength());
+        resp.setCtime(metadata.getCtime());
+        resp.setDigestType(metadata.getDigestType().name());
+        Map<Long, List<String>> ensembles = new TreeMap<>();
+        metadata.getAllEnsembles().forEach((firstEntryId, ensemble) ->
+                ensembles.put(firstEntryId, ensemble.stream().map(Object::toString).toList()));
+        resp.setEnsembles(ensembles);
+        Map<String, String> customMetadata = new LinkedHashMap<>();
+        metadata.getCustomMetadata().forEach((key, value) ->
+                customMetadata.put(key, new String(value, StandardCharsets.UTF_8)));
+        resp.setCustomMetadata(customMetadata);
+        if (versioned.getVersion() instanceof LongVersion longVersion) {
+            resp.setVersion(longVersion.getLongVersion());
+        }
+        return resp;
+    }
+
+}
@@ -0,0 +1,373 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.service;
+
+import io.github.dashboard.bookkeeper.config.BookkeeperConfig;
+import io.github.dashboard.bookkeeper.decode.EntryDecoder;
+import io.github.dashboard.bookkeeper.metrics.BookkeeperMetrics;
+import io.github.dashboard.bookkeeper.module.DecodeOptions;
+import io.github.dashboard.bookkeeper.module.GetLedgerEntryResp;
+import io.github.dashboard.bookkeeper.util.BkUtil;
+import io.github.dashboard.bookkeeper.util.EntryFrameUtil;
+import io.github.dashboard.bookkeeper.util.HexUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.util.ReferenceCountUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.bookkeeper.client.BKException;
+import org.apache.bookkeeper.client.api.LedgerEntries;
+import org.apache.bookkeeper.client.api.LedgerEntry;
+import org.apache.bookkeeper.client.api.ReadHandle;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Non-blocking read path on top of the BookKeeper async api. Nothing here blocks the calling thread. Handles come
+ * from {@link ReadHandleCacheService} and are not closed after use.
+ */
+@Slf4j
+@Service
+public class LedgerReadService {
+
+    private final BookkeeperConfig config;
+
+    private final BookkeeperClientService bookkeeperClientService;
+
+    private final ReadHandleCacheService readHandleCacheService;
+
+    private final EntryCacheService entryCacheService;
+
+    private final ReadAheadService readAheadService;
+
+    private final BookkeeperMetrics metrics;
+
+    public LedgerReadService(@Autowired BookkeeperConfig config,
+                             @Autowired BookkeeperClientService bookkeeperClientService,
+                             @Autowired ReadHandleCacheService readHandleCacheService,
+                             @Autowired EntryCacheService entryCacheService,
+                             @Autowired ReadAheadService readAheadService,
+                             @Autowired BookkeeperMetrics metrics) {
+        this.config = config;
+        this.bookkeeperClientService = bookkeeperClientService;
+        this.readHandleCacheService = readHandleCacheService;
+        this.entryCacheService = entryCacheService;
+        this.readAheadService = readAheadService;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns a cached no-recovery read handle, reads through it are bounded by the LAC and never fence the ledger.
+     * The handle of a ledger that is still being written has its LAC refreshed first, otherwise reads would stop at
+     * the LAC seen when the handle was opened.
+     * With {@code recover} the ledger is recovered and sealed first, which fences a writer that still owns it.
+     */
+    public Mono<ReadHandle> openLedger(long ledgerId, boolean recover) {
+        Mono<ReadHandle> readHandle = readHandleCacheService.getReadHandle(ledgerId)
+                .flatMap(this::refreshLastAddConfirmed);
+        if (!recover) {
+            return readHandle;
+        }
+        return recoverLedger(ledgerId).then(readHandle);
+    }
+
+    public <T> Mono<T> withLedger(long ledgerId, boolean recover, Function<ReadHandle, Mono<T>> fn) {
+        return openLedger(ledgerId, recover).flatMap(fn);
+    }
+
+    private Mono<Void> recoverLedger(long ledgerId) {
+        return bookkeeperClientService.bookKeeper()
+                .flatMap(bookKeeper -> Mono.fromFuture(() -> metrics.record(BookkeeperMetrics.RECOVER,
+                        () -> bookKeeper.newOpenLedgerOp()
+                                .withLedgerId(ledgerId)
+                                .withDigestType(config.getApiDigestType())
+                                .withPassword(config.getPassword())
+                                .withRecovery(true)
+                                .execute())))
+                .doOnSubscribe(subscription -> log.info("{} recover ledger on request", ledgerId))
+                .flatMap(readHandle -> Mono.fromFuture(readHandle::closeAsync))
+                // before the completion reaches the caller, so it does not get the cached pre-recovery handle
+                .doOnTerminate(() -> readHandleCacheService.invalidate(ledgerId));
+    }
+
+    private Mono<ReadHandle> refreshLastAddConfirmed(ReadHandle readHandle) {
+        if (readHandle.isClosed()) {
+            return Mono.just(readHandle);
+        }
+        return Mono.fromFuture(() -> metrics.record(BookkeeperMetrics.LAC, readHandle::readLastAddConfirmedAsync))
+                .thenReturn(readHandle);
+    }
+
+    /**
+     * Reads [first, last] in batches of {@link BookkeeperConfig#readBatchSize}, the next batch is only requested
+     * once the previous one has been consumed. Reads of the same {@code session} go through its read-ahead buffer,
+     * see {@link ReadAheadService}, a null session reads straight from the bookies.
+     */
+    public Flux<GetLedgerEntryResp> readEntries(ReadHandle readHandle, long first, long last,
+                                                EntryDecoder decoder, DecodeOptions options,
+                                                @Nullable String session) {
+        int batchSize = config.readBatchSize;
+        return Flux.defer(() -> {
+            AtomicLong returned = new AtomicLong();
+            return batchStarts(first, last, batchSize)
+                    .concatMap(start -> readBatch(readHandle, start, Math.min(last, start + batchSize - 1), decoder,
+                            options, session))
+                    .concatMapIterable(batch -> batch)
+                    .doOnNext(resp -> returned.incrementAndGet())
+                    .doFinally(signal -> metrics.recordRequestEntries(returned.get()));
+        });
+    }
+
+    private Mono<List<GetLedgerEntryResp>> readBatch(ReadHandle readHandle, long first, long last,
+                                                     EntryDecoder decoder, DecodeOptions options,
+                                                     @Nullable String session) {
+        if (!entryCacheService.isCacheable(readHandle.isClosed())) {
+            return readPayloads(readHandle, first, last, session)
+                    .handle((List<ByteBuf> payloads, SynchronousSink<List<GetLedgerEntryResp>> sink) ->
+                            convert(readHandle.getId(), first, payloads, decoder, options, sink));
+        }
+        return Mono.defer(() -> readCachedBatch(readHandle, first, last, decoder, options, session));
+    }
+
+    /**
+     * Returns the payloads of [first, last] retained for the caller, who must release them. A cancelled subscriber
+     * does not cancel the read, the entries it completes with are discarded and closed.
+     */
+    private Mono<List<ByteBuf>> readPayloads(ReadHandle readHandle, long first, long last,
+                                             @Nullable String session) {
+        if (session != null && readAheadService.isEnabled()) {
+            return readAheadService.read(readHandle, first, last, session);
+        }
+        return Mono.fromFuture(() -> metrics.readAsync(readHandle, first, last), true)
+                .map(entries -> retainPayloads(entries, false))
+                .doOnDiscard(LedgerEntries.class, LedgerEntries::close);
+    }
+
+    /**
+     * Serves what it can from the decoded entry cache, then from the payload cache, and reads the range spanning the
+     * remaining entries from the bookies.
+     */
+    private Mono<List<GetLedgerEntryResp>> readCachedBatch(ReadHandle readHandle, long first, long last,
+                                                           EntryDecoder decoder, DecodeOptions options,
+                                                           @Nullable String session) {
+        long ledgerId = readHandle.getId();
+        String decoderKey = EntryCacheService.decoderKey(decoder, options);
+        GetLedgerEntryResp[] batch = new GetLedgerEntryResp[(int) (last - first + 1)];
+        long firstMissing = -1;
+        long lastMissing = -1;
+        try {
+            for (long entryId = first; entryId <= last; entryId++) {
+                GetLedgerEntryResp resp = entryCacheService.getDecoded(ledgerId, entryId, decoderKey);
+                if (resp == null) {
+                    resp = decodeCachedPayload(ledgerId, entryId, decoder, options, decoderKey);
+                }
+                if (resp == null) {
+                    firstMissing = firstMissing < 0 ? entryId : firstMissing;
+                    lastMissing = entryId;
+                } else {
+                    batch[(int) (entryId - first)] = resp;
+                }
+            }
+        } catch (Exception e) {
+            return Mono.error(e);
+        }
+        if (firstMissing < 0) {
+            return Mono.just(Arrays.asList(batch));
+        }
+        long readFirst = firstMissing;
+        long readLast = lastMissing;
+        return readPayloads(readHandle, readFirst, readLast, session)
+                .handle((List<ByteBuf> payloads, SynchronousSink<List<GetLedgerEntryResp>> sink) -> {
+                    try {
+                        for (int i = 0; i < payloads.size(); i++) {
+                            long entryId = readFirst + i;
+                            ByteBuf payload = payloads.get(i);
+                            entryCacheService.putPayload(ledgerId, entryId, payload);
+                            GetLedgerEntryResp resp = BkUtil.convert(ledgerId, entryId, payload, decoder, options);
+                            entryCacheService.putDecoded(ledgerId, entryId, decoderKey, resp);
+                            batch[(int) (entryId - first)] = resp;
+                            metrics.recordDecoded(1, resp.getLength());
+                        }
+                        sink.next(Arrays.asList(batch));
+                    } catch (Exception e) {
+                        sink.error(e);
+                    } finally {
+                        payloads.forEach(ReferenceCountUtil::safeRelease);
+                    }
+                });
+    }
+
+    private @Nullable GetLedgerEntryResp decodeCachedPayload(long ledgerId, long entryId, EntryDecoder decoder,
+                                                             DecodeOptions options, String decoderKey)
+            throws Exception {
+        ByteBuf payload = entryCacheService.getPayload(ledgerId, entryId);
+        if (payload == null) {
+            return null;
+        }
+        try {
+            GetLedgerEntryResp resp = BkUtil.convert(ledgerId, entryId, payload, decoder, options);
+            entryCacheService.putDecoded(ledgerId, entryId, decoderKey, resp);
+            metrics.recordDecoded(1, resp.getLength());
+            return resp;
+        } finally {
+            payload.release();
+        }
+    }
+
+    /**
+     * Reads [first, last] as the payload buffers returned by the bookies, wrapped into data buffers without copying.
+     * With {@code framed} every payload is preceded by its {@link EntryFrameUtil} header. The buffers are released
+     * once written or discarded.
+     */
+    public Flux<DataBuffer> readRawEntries(ReadHandle readHandle, long first, long last, boolean framed,
+                                           DataBufferFactory bufferFactory) {
+        return readBuffers(readHandle, first, last, entries -> retainPayloads(entries, framed), bufferFactory);
+    }
+
+    /**
+     * Reads [first, last] as ASCII text, one {@code <entryId> <hex>} line per entry, or with {@code dump} a
+     * {@code hexdump -C} style block per entry. Every entry is encoded straight into its own output buffer.
+     */
+    public Flux<DataBuffer> readHexEntries(ReadHandle readHandle, long first, long last, boolean dump,
+                                           DataBufferFactory bufferFactory) {
+        return readBuffers(readHandle, first, last, entries -> encodeHex(entries, dump), bufferFactory);
+    }
+
+    private Flux<DataBuffer> readBuffers(ReadHandle readHandle, long first, long last,
+                                         Function<LedgerEntries, List<ByteBuf>> fn,
+                                         DataBufferFactory bufferFactory) {
+        int batchSize = config.readBatchSize;
+        return batchStarts(first, last, batchSize)
+                .concatMap(start -> Mono.fromFuture(() -> metrics.readAsync(readHandle, start,
+                                Math.min(last, start + batchSize - 1)), true)
+                        .flatMapIterable(fn))
+                .map(buffer -> toDataBuffer(buffer, bufferFactory))
+                .doOnDiscard(LedgerEntries.class, LedgerEntries::close)
+                .doOnDiscard(ByteBuf.class, ReferenceCountUtil::safeRelease)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    static Flux<Long> batchStarts(long first, long last, int batchSize) {
+        return Flux.generate(() -> first, (next, sink) -> {
+            if (next > last) {
+                sink.complete();
+            } else {
+                sink.next(next);
+            }
+            return next + batchSize;
+        });
+    }
+
+    private static List<ByteBuf> retainPayloads(LedgerEntries entries, boolean framed) {
+        try (entries) {
+            List<ByteBuf> buffers = new ArrayList<>();
+            for (LedgerEntry ledgerEntry : entries) {
+                ByteBuf payload = ledgerEntry.getEntryBuffer();
+                if (framed) {
+                    buffers.add(EntryFrameUtil.header(payload.alloc(), ledgerEntry.getEntryId(),
+                            payload.readableBytes()));
+                }
+                buffers.add(payload.retainedSlice());
+            }
+            return buffers;
+        }
+    }
+
+    private static List<ByteBuf> encodeHex(LedgerEntries entries, boolean dump) {
+        List<ByteBuf> buffers = new ArrayList<>();
+        try (entries) {
+            for (LedgerEntry ledgerEntry : entries) {
+                ByteBuf payload = ledgerEntry.getEntryBuffer();
+                int length = payload.readableBytes();
+                String title = dump ? "# entry " + ledgerEntry.getEntryId() + " length " + length + "\n"
+                        : ledgerEntry.getEntryId() + " ";
+                ByteBuf out = payload.alloc().buffer(title.length()
+                        + (dump ? HexUtil.dumpLength(length) : (length << 1) + 1));
+                buffers.add(out);
+                out.writeCharSequence(title, StandardCharsets.US_ASCII);
+                if (dump) {
+                    HexUtil.dump(payload, 0, out);
+                } else {
+                    HexUtil.encode(payload, out);
+                    out.writeByte('\n');
+                }
+            }
+            return buffers;
+        } catch (RuntimeException e) {
+            buffers.forEach(ReferenceCountUtil::safeRelease);
+            throw e;
+        }
+    }
+
+    private static DataBuffer toDataBuffer(ByteBuf buffer, DataBufferFactory bufferFactory) {
+        if (bufferFactory instanceof NettyDataBufferFactory nettyDataBufferFactory) {
+            return nettyDataBufferFactory.wrap(buffer);
+        }
+        try {
+            return bufferFactory.wrap(ByteBufUtil.getBytes(buffer));
+        } finally {
+            buffer.release();
+        }
+    }
+
+    public Mono<GetLedgerEntryResp> readEntry(ReadHandle readHandle, long entryId,
+                                              EntryDecoder decoder, DecodeOptions options,
+                                              @Nullable String session) {
+        if (entryId > readHandle.getLastAddConfirmed()) {
+            return Mono.error(new BKException.BKNoSuchEntryException());
+        }
+        return readBatch(readHandle, entryId, entryId, decoder, options, session)
+                .flatMap(list -> Mono.justOrEmpty(list.stream().findFirst()))
+                .doOnNext(resp -> metrics.recordRequestEntries(1));
+    }
+
+    private void convert(long ledgerId, long first, List<ByteBuf> payloads, EntryDecoder decoder,
+                         DecodeOptions options, SynchronousSink<List<GetLedgerEntryResp>> sink) {
+        try {
+            List<GetLedgerEntryResp> result = new ArrayList<>(payloads.size());
+            long bytes = 0;
+            for (int i = 0; i < payloads.size(); i++) {
+                bytes += payloads.get(i).readableBytes();
+                result.add(BkUtil.convert(ledgerId, first + i, payloads.get(i), decoder, options));
+            }
+            metrics.recordDecoded(result.size(), bytes);
+            sink.next(result);
+        } catch (Exception e) {
+            sink.error(e);
+        } finally {
+            payloads.forEach(ReferenceCountUtil::safeRelease);
+        }
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.service;
+
+import io.github.dashboard.bookkeeper.config.BookkeeperConfig;
+import io.github.dashboard.bookkeeper.metrics.BookkeeperMetrics;
+import io.github.dashboard.bookkeeper.module.SearchEvent;
+import io.github.dashboard.bookkeeper.search.EntryMatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.bookkeeper.client.api.LedgerEntries;
+import org.apache.bookkeeper.client.api.LedgerEntry;
+import org.apache.bookkeeper.client.api.ReadHandle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scans entry ranges on the server. Batches are read {@code parallelism} at a time and matched on the parallel
+ * scheduler, hits are emitted in entry order as soon as their batch is done.
+ */
+@Slf4j
+@Service
+public class LedgerSearchService {
+
+    private final BookkeeperConfig config;
+
+    private final BookkeeperMetrics metrics;
+
+    public LedgerSearchService(@Autowired BookkeeperConfig config,
+                               @Autowired BookkeeperMetrics metrics) {
+        this.config = config;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Emits at most {@code maxHits} hits, a progress event every
+     * {@link BookkeeperConfig#searchProgressIntervalMs} and a final done event. Reading stops at the last hit.
+     */
+    public Flux<SearchEvent> search(ReadHandle readHandle, long first, long last, EntryMatcher matcher,
+                                    int maxHits, int parallelism) {
+        int batchSize = config.readBatchSize;
+        return Flux.defer(() -> {
+            SearchProgress progress = new SearchProgress(config.searchProgressIntervalMs);
+            return LedgerReadService.batchStarts(first, last, batchSize)
+                    .flatMapSequential(start -> Mono.fromFuture(() -> metrics.readAsync(readHandle, start,
+                                            Math.min(last, start + batchSize - 1)), true)
+                                    .publishOn(Schedulers.parallel())
+                                    .map(entries -> scan(entries, matcher)),
+                            parallelism, 1)
+                    .concatMapIterable(batch -> progress.add(batch, maxHits))
+                    .takeUntil(event -> progress.isLastHit(event, maxHits))
+                    .doOnDiscard(LedgerEntries.class, LedgerEntries::close)
+                    .concatWith(Mono.fromSupplier(() -> progress.event(SearchEvent.DONE)))
+                    .doOnComplete(() -> log.info("{} searched {} entries, {} bytes, {} hits in {} ms",
+                            readHandle.getId(), progress.entries, progress.bytes, progress.hits,
+                            progress.elapsedMs()));
+        });
+    }
+
+    private static SearchBatch scan(LedgerEntries entries, EntryMatcher matcher) {
+        try (entries) {
+            SearchBatch batch = new SearchBatch();
+            for (LedgerEntry ledgerEntry : entries) {
+                batch.entries++;
+                batch.bytes += ledgerEntry.getLength();
+                SearchEvent hit = matcher.match(ledgerEntry.getEntryId(), ledgerEntry.getEntryBuffer());
+                if (hit != null) {
+                    batch.hits.add(hit);
+                }
+            }
+            return batch;
+        }
+    }
+
+    private static class SearchBatch {
+
+        private long entries;
+
+        private long bytes;
+
+        private final List<SearchEvent> hits = new ArrayList<>();
+
+    }
+
+    /**
+     * Running totals of one search, only touched from the sequential part of the pipeline.
+     */
+    private static class SearchProgress {
+
+        private final long startNanos = System.nanoTime();
+
+        private final long intervalNanos;
+
+        private long lastReportNanos = startNanos;
+
+        private long entries;
+
+        private long bytes;
+
+        private long hits;
+
+        private long emittedHits;
+
+        SearchProgress(int intervalMs) {
+            this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        }
+
+        List<SearchEvent> add(SearchBatch batch, int maxHits) {
+            entries += batch.entries;
+            bytes += batch.bytes;
+            List<SearchEvent> events = new ArrayList<>();
+            for (SearchEvent hit : batch.hits) {
+                if (hits >= maxHits) {
+                    break;
+                }
+                hits++;
+                events.add(hit);
+            }
+            long now = System.nanoTime();
+            if (hits < maxHits && now - lastReportNanos >= intervalNanos) {
+                lastReportNanos = now;
+                events.add(event(SearchEvent.PROGRESS));
+            }
+            return events;
+        }
+
+        boolean isLastHit(SearchEvent event, int maxHits) {
+            return SearchEvent.HIT.equals(event.getType()) && ++emittedHits >= maxHits;
+        }
+
+        SearchEvent event(String type) {
+            long elapsedMs = elapsedMs();
+            double seconds = Math.max(elapsedMs, 1) / 1000.0;
+            SearchEvent event = new SearchEvent();
+            event.setType(type);
+            event.setScannedEntries(entries);
+            event.setScannedBytes(bytes);
+            event.setHits(hits);
+            event.setElapsedMs(elapsedMs);
+            event.setEntriesPerSecond(entries / seconds);
+            event.setBytesPerSecond(bytes / seconds);
+            return event;
+        }
+
+        long elapsedMs() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+
+    }
+
+}
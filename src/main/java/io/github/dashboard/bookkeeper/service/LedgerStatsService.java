@@ -0,0 +1,330 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.github.dashboard.bookkeeper.config.BookkeeperConfig;
+import io.github.dashboard.bookkeeper.decode.PulsarEntryParser;
+import io.github.dashboard.bookkeeper.metrics.BookkeeperMetrics;
+import io.github.dashboard.bookkeeper.module.CacheStatsResp;
+import io.github.dashboard.bookkeeper.module.LedgerStatsResp;
+import io.github.dashboard.bookkeeper.module.PulsarDataEntry;
+import io.github.dashboard.bookkeeper.module.PulsarMessageMetadata;
+import io.netty.buffer.ByteBuf;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.bookkeeper.client.api.LedgerEntries;
+import org.apache.bookkeeper.client.api.LedgerEntry;
+import org.apache.bookkeeper.client.api.ReadHandle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes entry range statistics in one pass. Every read batch is folded into a fixed size accumulator as soon as it
+ * arrives, so memory does not grow with the ledger. Results are cached per ledger, LAC and request, entries up to the
+ * LAC never change so a cached result stays exact.
+ */
+@Slf4j
+@Service
+public class LedgerStatsService {
+
+    private final BookkeeperConfig config;
+
+    private final AsyncCache<String, LedgerStatsResp> cache;
+
+    private final BookkeeperMetrics metrics;
+
+    public LedgerStatsService(@Autowired BookkeeperConfig config,
+                              @Autowired BookkeeperMetrics metrics) {
+        this.config = config;
+        this.metrics = metrics;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.statsCacheSize)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Reads every entry of [first, last], or with {@code sampleEvery} > 1 every Nth entry, or with {@code sampleSize}
+     * > 0 that many entries picked uniformly at random. The random pick is seeded by ledger and LAC, so it is stable
+     * for a cached result.
+     */
+    public Mono<LedgerStatsResp> getStats(ReadHandle readHandle, long first, long last, int sampleEvery,
+                                          int sampleSize, boolean pulsar) {
+        long lac = readHandle.getLastAddConfirmed();
+        String key = readHandle.getId() + ":" + lac + ":" + first + ":" + last + ":" + sampleEvery + ":"
+                + sampleSize + ":" + pulsar;
+        // the pass is shared by all callers of the key, it completes and gets cached when one of them goes away
+        return Mono.fromFuture(() -> cache.get(key, (k, executor) ->
+                compute(readHandle, lac, first, last, sampleEvery, sampleSize, pulsar).toFuture()), true);
+    }
+
+    public CacheStatsResp stats() {
+        CacheStats stats = cache.synchronous().stats();
+        CacheStatsResp resp = new CacheStatsResp();
+        resp.setSize(cache.synchronous().estimatedSize());
+        resp.setHitCount(stats.hitCount());
+        resp.setMissCount(stats.missCount());
+        resp.setEvictionCount(stats.evictionCount());
+        resp.setLoadFailureCount(stats.loadFailureCount());
+        return resp;
+    }
+
+    private Mono<LedgerStatsResp> compute(ReadHandle readHandle, long lac, long first, long last, int sampleEvery,
+                                          int sampleSize, boolean pulsar) {
+        long startNanos = System.nanoTime();
+        long rangeSize = Math.max(0, last - first + 1);
+        Flux<StatsAccumulator> batches;
+        String sampling = null;
+        if (sampleEvery <= 1 && sampleSize <= 0) {
+            int batchSize = config.readBatchSize;
+            batches = LedgerReadService.batchStarts(first, last, batchSize)
+                    .flatMap(start -> Mono.fromFuture(() -> metrics.readAsync(readHandle, start,
+                                    Math.min(last, start + batchSize - 1)), true)
+                            .map(entries -> accumulate(entries, pulsar)), config.statsParallelism);
+        } else {
+            Flux<Long> entryIds;
+            if (sampleSize > 0) {
+                sampling = "random " + Math.min(sampleSize, rangeSize) + " of " + rangeSize + " entries";
+                long seed = readHandle.getId() * 31 + lac;
+                entryIds = Flux.generate(() -> new SelectionSampler(first, last, sampleSize, seed),
+                        (sampler, sink) -> {
+                            long entryId = sampler.next();
+                            if (entryId < 0) {
+                                sink.complete();
+                            } else {
+                                sink.next(entryId);
+                            }
+                            return sampler;
+                        });
+            } else {
+                sampling = "every " + sampleEvery + " entries";
+                entryIds = LedgerReadService.batchStarts(first, last, sampleEvery);
+            }
+            batches = entryIds.flatMap(entryId -> Mono.fromFuture(() -> metrics.readAsync(readHandle, entryId,
+                            entryId), true)
+                    .map(entries -> accumulate(entries, pulsar)), config.statsParallelism);
+        }
+        String samplingDesc = sampling;
+        return batches
+                .reduceWith(StatsAccumulator::new, StatsAccumulator::merge)
+                .doOnDiscard(LedgerEntries.class, LedgerEntries::close)
+                .map(accumulator -> {
+                    LedgerStatsResp resp = accumulator.toResp(rangeSize, samplingDesc != null);
+                    resp.setLedgerId(readHandle.getId());
+                    resp.setLastAddConfirmed(lac);
+                    resp.setFromEntry(first);
+                    resp.setToEntry(last);
+                    resp.setSampling(samplingDesc);
+                    resp.setElapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                    log.info("{} computed stats of {} entries in {} ms", readHandle.getId(), resp.getEntries(),
+                            resp.getElapsedMs());
+                    return resp;
+                });
+    }
+
+    private static StatsAccumulator accumulate(LedgerEntries entries, boolean pulsar) {
+        try (entries) {
+            StatsAccumulator accumulator = new StatsAccumulator();
+            for (LedgerEntry ledgerEntry : entries) {
+                accumulator.add(ledgerEntry.getEntryId(), ledgerEntry.getEntryBuffer(), pulsar);
+            }
+            return accumulator;
+        }
+    }
+
+    /**
+     * Knuth's selection sampling: walks the ids once and picks exactly {@code sampleSize} of them, in order.
+     */
+    private static class SelectionSampler {
+
+        private final long last;
+
+        private final SplittableRandom random;
+
+        private long next;
+
+        private long toSelect;
+
+        SelectionSampler(long first, long last, long sampleSize, long seed) {
+            this.last = last;
+            this.random = new SplittableRandom(seed);
+            this.next = first;
+            this.toSelect = sampleSize;
+        }
+
+        long next() {
+            while (toSelect > 0 && next <= last) {
+                long candidate = next++;
+                if (random.nextLong(last - candidate + 1) < toSelect) {
+                    toSelect--;
+                    return candidate;
+                }
+            }
+            return -1;
+        }
+
+    }
+
+    private static class StatsAccumulator {
+
+        private long entries;
+
+        private long bytes;
+
+        private long minEntryId = -1;
+
+        private long minEntryBytes = Long.MAX_VALUE;
+
+        private long maxEntryId = -1;
+
+        private long maxEntryBytes = -1;
+
+        /**
+         * Bucket i counts the sizes of bit length i, entry sizes are ints.
+         */
+        private final long[] histogram = new long[33];
+
+        private long pulsarEntries;
+
+        private long pulsarMessages;
+
+        private int minMessagesPerBatch = Integer.MAX_VALUE;
+
+        private int maxMessagesPerBatch;
+
+        private long minPublishTime = Long.MAX_VALUE;
+
+        private long maxPublishTime = Long.MIN_VALUE;
+
+        private final Map<String, Long> compression = new TreeMap<>();
+
+        void add(long entryId, ByteBuf payload, boolean pulsar) {
+            long size = payload.readableBytes();
+            entries++;
+            bytes += size;
+            if (size < minEntryBytes) {
+                minEntryBytes = size;
+                minEntryId = entryId;
+            }
+            if (size > maxEntryBytes) {
+                maxEntryBytes = size;
+                maxEntryId = entryId;
+            }
+            histogram[64 - Long.numberOfLeadingZeros(size)]++;
+            if (pulsar) {
+                addPulsar(payload);
+            }
+        }
+
+        private void addPulsar(ByteBuf payload) {
+            PulsarDataEntry entry = new PulsarDataEntry();
+            try {
+                PulsarEntryParser.parseHeaders(payload, entry);
+            } catch (RuntimeException e) {
+                return;
+            }
+            PulsarMessageMetadata metadata = entry.getMetadata();
+            int messages = metadata.getNumMessagesInBatch() == null ? 1 : metadata.getNumMessagesInBatch();
+            pulsarEntries++;
+            pulsarMessages += messages;
+            minMessagesPerBatch = Math.min(minMessagesPerBatch, messages);
+            maxMessagesPerBatch = Math.max(maxMessagesPerBatch, messages);
+            if (metadata.getPublishTime() != null) {
+                minPublishTime = Math.min(minPublishTime, metadata.getPublishTime());
+                maxPublishTime = Math.max(maxPublishTime, metadata.getPublishTime());
+            }
+            compression.merge(metadata.getCompression(), 1L, Long::sum);
+        }
+
+        StatsAccumulator merge(StatsAccumulator other) {
+            entries += other.entries;
+            bytes += other.bytes;
+            if (other.minEntryBytes < minEntryBytes) {
+                minEntryBytes = other.minEntryBytes;
+                minEntryId = other.minEntryId;
+            }
+            if (other.maxEntryBytes > maxEntryBytes) {
+                maxEntryBytes = other.maxEntryBytes;
+                maxEntryId = other.maxEntryId;
+            }
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += other.histogram[i];
+            }
+            pulsarEntries += other.pulsarEntries;
+            pulsarMessages += other.pulsarMessages;
+            minMessagesPerBatch = Math.min(minMessagesPerBatch, other.minMessagesPerBatch);
+            maxMessagesPerBatch = Math.max(maxMessagesPerBatch, other.maxMessagesPerBatch);
+            minPublishTime = Math.min(minPublishTime, other.minPublishTime);
+            maxPublishTime = Math.max(maxPublishTime, other.maxPublishTime);
+            other.compression.forEach((type, count) -> compression.merge(type, count, Long::sum));
+            return this;
+        }
+
+        LedgerStatsResp toResp(long rangeSize, boolean sampled) {
+            LedgerStatsResp resp = new LedgerStatsResp();
+            resp.setEntries(entries);
+            resp.setTotalBytes(bytes);
+            if (entries > 0) {
+                double averageBytes = (double) bytes / entries;
+                resp.setAverageBytes(averageBytes);
+                resp.setMinEntryId(minEntryId);
+                resp.setMinEntryBytes(minEntryBytes);
+                resp.setMaxEntryId(maxEntryId);
+                resp.setMaxEntryBytes(maxEntryBytes);
+                if (sampled) {
+                    resp.setEstimatedEntries(rangeSize);
+                    resp.setEstimatedBytes(Math.round(averageBytes * rangeSize));
+                }
+            }
+            Map<Long, Long> sizeHistogram = new LinkedHashMap<>();
+            for (int i = 0; i < histogram.length; i++) {
+                if (histogram[i] > 0) {
+                    sizeHistogram.put(1L << i, histogram[i]);
+                }
+            }
+            resp.setSizeHistogram(sizeHistogram);
+            if (pulsarEntries > 0) {
+                resp.setPulsarEntries(pulsarEntries);
+                resp.setPulsarMessages(pulsarMessages);
+                resp.setMinMessagesPerBatch(minMessagesPerBatch);
+                resp.setMaxMessagesPerBatch(maxMessagesPerBatch);
+                resp.setAverageMessagesPerBatch((double) pulsarMessages / pulsarEntries);
+                if (minPublishTime <= maxPublishTime) {
+                    resp.setMinPublishTime(minPublishTime);
+                    resp.setMaxPublishTime(maxPublishTime);
+                }
+                resp.setCompression(compression);
+            }
+            return resp;
+        }
+
+    }
+
+}
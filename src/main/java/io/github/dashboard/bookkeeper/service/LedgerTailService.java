@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.service;
+
+import io.github.dashboard.bookkeeper.config.BookkeeperConfig;
+import io.github.dashboard.bookkeeper.decode.EntryDecoder;
+import io.github.dashboard.bookkeeper.metrics.BookkeeperMetrics;
+import io.github.dashboard.bookkeeper.module.DecodeOptions;
+import io.github.dashboard.bookkeeper.module.GetLedgerEntryResp;
+import io.github.dashboard.bookkeeper.util.BkUtil;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.bookkeeper.client.api.LedgerEntries;
+import org.apache.bookkeeper.client.api.LedgerEntry;
+import org.apache.bookkeeper.client.api.ReadHandle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams the entries added to a ledger after subscription. Every tailed ledger has one handle and one long-poll
+ * loop, shared by all of its subscribers and stopped when the last one leaves. Each subscriber buffers at most
+ * {@link BookkeeperConfig#tailBufferSize} entries, a subscriber that falls further behind is dropped with an error
+ * instead of stalling the others.
+ */
+@Slf4j
+@Service
+public class LedgerTailService {
+
+    private final BookkeeperConfig config;
+
+    private final BookkeeperClientService bookkeeperClientService;
+
+    private final Map<Long, Flux<TailedEntry>> tails = new ConcurrentHashMap<>();
+
+    private final BookkeeperMetrics metrics;
+
+    public LedgerTailService(@Autowired BookkeeperConfig config,
+                             @Autowired BookkeeperClientService bookkeeperClientService,
+                             @Autowired BookkeeperMetrics metrics) {
+        this.config = config;
+        this.bookkeeperClientService = bookkeeperClientService;
+        this.metrics = metrics;
+        metrics.gauge("tails", tails::size);
+    }
+
+    public Flux<GetLedgerEntryResp> tail(long ledgerId, EntryDecoder decoder, DecodeOptions options) {
+        return Flux.defer(() -> tails.computeIfAbsent(ledgerId, this::sharedTail))
+                .onBackpressureBuffer(config.tailBufferSize, entry -> log.warn("{} tail subscriber is too slow",
+                        ledgerId), BufferOverflowStrategy.ERROR)
+                .handle((TailedEntry entry, SynchronousSink<GetLedgerEntryResp> sink) -> {
+                    try {
+                        sink.next(BkUtil.convert(ledgerId, entry.entryId, Unpooled.wrappedBuffer(entry.payload),
+                                decoder, options));
+                        metrics.recordDecoded(1, entry.payload.length);
+                    } catch (Exception e) {
+                        sink.error(e);
+                    }
+                });
+    }
+
+    private Flux<TailedEntry> sharedTail(long ledgerId) {
+        AtomicReference<Flux<TailedEntry>> self = new AtomicReference<>();
+        Flux<TailedEntry> shared = Flux.usingWhen(openLedgerNoRecovery(ledgerId), this::poll,
+                        readHandle -> Mono.fromFuture(readHandle::closeAsync))
+                .doOnSubscribe(subscription -> log.info("{} start tailing", ledgerId))
+                .doFinally(signal -> {
+                    tails.remove(ledgerId, self.get());
+                    log.info("{} stop tailing, {}", ledgerId, signal);
+                })
+                .publish()
+                .refCount();
+        self.set(shared);
+        return shared;
+    }
+
+    private Mono<ReadHandle> openLedgerNoRecovery(long ledgerId) {
+        return bookkeeperClientService.bookKeeper()
+                .flatMap(bookKeeper -> Mono.fromFuture(() -> metrics.record(BookkeeperMetrics.OPEN,
+                        () -> bookKeeper.newOpenLedgerOp()
+                                .withLedgerId(ledgerId)
+                                .withDigestType(config.getApiDigestType())
+                                .withPassword(config.getPassword())
+                                .withRecovery(false)
+                                .execute())));
+    }
+
+    /**
+     * Long polls the LAC past the last emitted entry, emitting the entry returned with the LAC and reading the rest
+     * up to the new LAC. A sealed ledger completes once its last entry was emitted.
+     */
+    private Flux<TailedEntry> poll(ReadHandle readHandle) {
+        AtomicLong next = new AtomicLong(readHandle.getLastAddConfirmed() + 1);
+        return Flux.defer(() -> pollOnce(readHandle, next))
+                .repeat(() -> !readHandle.isClosed() || next.get() <= readHandle.getLastAddConfirmed());
+    }
+
+    private Flux<TailedEntry> pollOnce(ReadHandle readHandle, AtomicLong next) {
+        long entryId = next.get();
+        return Mono.fromFuture(() -> metrics.record(BookkeeperMetrics.LAC, () -> readHandle
+                        .readLastAddConfirmedAndEntryAsync(entryId, config.tailLongPollTimeoutMs, false)))
+                .flatMapMany(result -> {
+                    try (result) {
+                        long lac = result.getLastAddConfirmed();
+                        if (lac < entryId) {
+                            return Flux.empty();
+                        }
+                        next.set(lac + 1);
+                        long first = entryId;
+                        List<TailedEntry> head = new ArrayList<>(1);
+                        if (result.hasEntry() && result.getEntry().getEntryId() == entryId) {
+                            head.add(copy(result.getEntry()));
+                            first++;
+                        }
+                        if (first > lac) {
+                            return Flux.fromIterable(head);
+                        }
+                        return Flux.fromIterable(head).concatWith(readRange(readHandle, first, lac));
+                    }
+                });
+    }
+
+    private Flux<TailedEntry> readRange(ReadHandle readHandle, long first, long last) {
+        int batchSize = config.readBatchSize;
+        return LedgerReadService.batchStarts(first, last, batchSize)
+                .concatMap(start -> Mono.fromFuture(() -> metrics.readAsync(readHandle, start,
+                                Math.min(last, start + batchSize - 1)), true)
+                        .flatMapIterable(LedgerTailService::copy))
+                .doOnDiscard(LedgerEntries.class, LedgerEntries::close);
+    }
+
+    private static List<TailedEntry> copy(LedgerEntries entries) {
+        try (entries) {
+            List<TailedEntry> result = new ArrayList<>();
+            for (LedgerEntry ledgerEntry : entries) {
+                result.add(copy(ledgerEntry));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Subscribers decode on their own threads, so they get a heap copy instead of the pooled entry buffer.
+     */
+    private static TailedEntry copy(LedgerEntry ledgerEntry) {
+        return new TailedEntry(ledgerEntry.getEntryId(), ByteBufUtil.getBytes(ledgerEntry.getEntryBuffer()));
+    }
+
+    @AllArgsConstructor
+    private static class TailedEntry {
+
+        private final long entryId;
+
+        private final byte[] payload;
+
+    }
+
+}
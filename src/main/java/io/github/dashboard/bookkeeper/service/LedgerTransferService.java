@@ -0,0 +1,388 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.service;
+
+import io.github.dashboard.bookkeeper.config.BookkeeperConfig;
+import io.github.dashboard.bookkeeper.metrics.BookkeeperMetrics;
+import io.github.dashboard.bookkeeper.module.ExportCompression;
+import io.github.dashboard.bookkeeper.module.JobState;
+import io.github.dashboard.bookkeeper.module.LedgerTransferJobResp;
+import io.github.dashboard.bookkeeper.util.EntryFrameUtil;
+import io.github.dashboard.bookkeeper.util.ExportFileUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.bookkeeper.client.api.LedgerEntries;
+import org.apache.bookkeeper.client.api.LedgerEntry;
+import org.apache.bookkeeper.client.api.ReadHandle;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exports ledgers to files under {@link BookkeeperConfig#exportDir} and imports them back into new ledgers, as
+ * background jobs. Files hold {@link EntryFrameUtil} frames in segments, see {@link ExportFileUtil}. After every
+ * segment the export syncs the file and records a checkpoint next to it, a resumed export truncates the file to the
+ * checkpoint and continues from the entry after it.
+ */
+@Slf4j
+@Service
+public class LedgerTransferService {
+
+    private final BookkeeperConfig config;
+
+    private final LedgerReadService ledgerReadService;
+
+    private final LedgerWriteService ledgerWriteService;
+
+    private final LedgerHandleService ledgerHandleService;
+
+    private final Scheduler bookkeeperScheduler;
+
+    private final JobCache<TransferJob> jobs;
+
+    private final BookkeeperMetrics metrics;
+
+    public LedgerTransferService(@Autowired BookkeeperConfig config,
+                                 @Autowired LedgerReadService ledgerReadService,
+                                 @Autowired LedgerWriteService ledgerWriteService,
+                                 @Autowired LedgerHandleService ledgerHandleService,
+                                 @Autowired Scheduler bookkeeperScheduler,
+                                 @Autowired BookkeeperMetrics metrics) {
+        this.config = config;
+        this.ledgerReadService = ledgerReadService;
+        this.ledgerWriteService = ledgerWriteService;
+        this.ledgerHandleService = ledgerHandleService;
+        this.bookkeeperScheduler = bookkeeperScheduler;
+        this.metrics = metrics;
+        this.jobs = new JobCache<>(config.jobRetentionSeconds, job -> job.state == JobState.Running);
+    }
+
+    /**
+     * Exports [fromEntry, min(toEntry, LAC)], reading up to {@code parallelism} batches ahead of the writer.
+     */
+    public LedgerTransferJobResp submitExport(long ledgerId, String file, ExportCompression compression,
+                                              long fromEntry, @Nullable Long toEntry, int parallelism,
+                                              boolean resume) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        Path path = resolve(file);
+        TransferJob job = new TransferJob("export", file);
+        job.ledgerId = ledgerId;
+        job.compression = compression;
+        log.info("export job {} started, ledger {} to {}", job.jobId, ledgerId, path);
+        Mono<Void> export = ledgerReadService.openLedger(ledgerId, false)
+                .flatMap(readHandle -> Mono.using(
+                        () -> new ExportWriter(path, ledgerId, compression, fromEntry, resume, job),
+                        writer -> writeEntries(readHandle, writer, toEntry, parallelism),
+                        ExportWriter::close));
+        return start(job, export.subscribeOn(bookkeeperScheduler));
+    }
+
+    /**
+     * Appends the entries of an export file to a new ledger, keeping up to {@code maxInFlight} adds outstanding. The
+     * compression is detected from the file, the new ledger numbers its entries from 0 whatever ids the file holds.
+     */
+    public LedgerTransferJobResp submitImport(String file, int maxInFlight, boolean close) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        Path path = resolve(file);
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("no such file " + file);
+        }
+        TransferJob job = new TransferJob("import", file);
+        log.info("import job {} started from {}", job.jobId, path);
+        Mono<Void> importing = ledgerWriteService.createLedger().flatMap(ledgerId -> {
+            job.ledgerId = ledgerId;
+            Flux<byte[]> payloads = Flux.generate(() -> openImport(path, job), LedgerTransferService::readPayload,
+                            LedgerTransferService::closeQuietly)
+                    .doOnNext(payload -> job.bytes.add(payload.length))
+                    .subscribeOn(bookkeeperScheduler);
+            Mono<Void> append = ledgerWriteService.append(ledgerId, payloads, maxInFlight)
+                    .doOnNext(entryId -> job.entries.increment())
+                    .then();
+            return close ? append.then(ledgerHandleService.closeLedgerHandle(ledgerId)) : append;
+        });
+        return start(job, importing);
+    }
+
+    public @Nullable LedgerTransferJobResp getJob(String jobId) {
+        TransferJob job = jobs.get(jobId);
+        return job == null ? null : job.toResp();
+    }
+
+    public @Nullable LedgerTransferJobResp cancelJob(String jobId) {
+        TransferJob job = jobs.get(jobId);
+        if (job == null) {
+            return null;
+        }
+        job.disposable.dispose();
+        return job.toResp();
+    }
+
+    private LedgerTransferJobResp start(TransferJob job, Mono<Void> work) {
+        jobs.put(job.jobId, job);
+        job.disposable = work
+                .doOnError(e -> job.error = e.getMessage())
+                .doFinally(signal -> {
+                    job.finish(signal);
+                    jobs.put(job.jobId, job);
+                })
+                .subscribe(null, e -> log.warn("{} job {} failed", job.type, job.jobId, e));
+        return job.toResp();
+    }
+
+    private Mono<Void> writeEntries(ReadHandle readHandle, ExportWriter writer, @Nullable Long toEntry,
+                                    int parallelism) {
+        long lac = readHandle.getLastAddConfirmed();
+        long last = toEntry == null ? lac : Math.min(lac, toEntry);
+        int batchSize = config.readBatchSize;
+        return LedgerReadService.batchStarts(writer.nextEntry, last, batchSize)
+                .flatMapSequential(start -> Mono.fromFuture(() -> metrics.readAsync(readHandle, start,
+                        Math.min(last, start + batchSize - 1)), true), parallelism, 1)
+                .publishOn(bookkeeperScheduler, parallelism)
+                .handle((LedgerEntries entries, SynchronousSink<Void> sink) -> {
+                    try {
+                        writer.append(entries);
+                    } catch (IOException e) {
+                        sink.error(e);
+                    }
+                })
+                .doOnDiscard(LedgerEntries.class, LedgerEntries::close)
+                .then(Mono.<Void>fromCallable(() -> {
+                    writer.finish();
+                    return null;
+                }));
+    }
+
+    private Path resolve(String file) {
+        Path dir = Path.of(config.exportDir).toAbsolutePath().normalize();
+        Path path = dir.resolve(file).normalize();
+        if (!path.startsWith(dir) || path.equals(dir)) {
+            throw new IllegalArgumentException("file must be inside " + dir);
+        }
+        return path;
+    }
+
+    private static DataInputStream openImport(Path path, TransferJob job) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            job.compression = ExportFileUtil.detect(channel);
+            job.fileBytes.add(channel.size());
+            return ExportFileUtil.openFrames(channel, job.compression);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static DataInputStream readPayload(DataInputStream in, SynchronousSink<byte[]> sink) {
+        try {
+            byte[] payload = ExportFileUtil.readFramePayload(in);
+            if (payload == null) {
+                sink.complete();
+            } else {
+                sink.next(payload);
+            }
+        } catch (IOException e) {
+            sink.error(e);
+        }
+        return in;
+    }
+
+    private static void closeQuietly(DataInputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            log.warn("close import file failed", e);
+        }
+    }
+
+    private class ExportWriter {
+
+        private final Path checkpoint;
+
+        private final FileChannel channel;
+
+        private final long ledgerId;
+
+        private final ExportCompression compression;
+
+        private final TransferJob job;
+
+        private final ByteBuf segment = Unpooled.buffer(config.exportSegmentBytes);
+
+        private long nextEntry;
+
+        ExportWriter(Path path, long ledgerId, ExportCompression compression, long fromEntry, boolean resume,
+                     TransferJob job) throws IOException {
+            this.checkpoint = path.resolveSibling(path.getFileName() + ".checkpoint");
+            this.ledgerId = ledgerId;
+            this.compression = compression;
+            this.job = job;
+            Files.createDirectories(path.getParent());
+            if (resume && Files.exists(checkpoint)) {
+                String[] fields = Files.readString(checkpoint).trim().split(" ");
+                if (fields.length != 4 || Long.parseLong(fields[0]) != ledgerId
+                        || ExportCompression.valueOf(fields[3]) != compression) {
+                    throw new IllegalArgumentException("checkpoint " + checkpoint + " belongs to another export");
+                }
+                long offset = Long.parseLong(fields[2]);
+                this.nextEntry = Long.parseLong(fields[1]);
+                this.channel = FileChannel.open(path, StandardOpenOption.WRITE);
+                channel.truncate(offset);
+                channel.position(offset);
+                job.fileBytes.add(offset);
+                log.info("export job {} resumes at entry {}, offset {}", job.jobId, nextEntry, offset);
+            } else {
+                Files.deleteIfExists(checkpoint);
+                this.nextEntry = fromEntry;
+                this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+            }
+        }
+
+        void append(LedgerEntries entries) throws IOException {
+            try (entries) {
+                for (LedgerEntry ledgerEntry : entries) {
+                    ByteBuf payload = ledgerEntry.getEntryBuffer();
+                    job.bytes.add(payload.readableBytes());
+                    EntryFrameUtil.writeFrame(segment, ledgerEntry.getEntryId(), payload);
+                    nextEntry = ledgerEntry.getEntryId() + 1;
+                    job.entries.increment();
+                }
+            }
+            if (segment.readableBytes() >= config.exportSegmentBytes) {
+                flush();
+            }
+        }
+
+        void finish() throws IOException {
+            flush();
+            Files.deleteIfExists(checkpoint);
+        }
+
+        private void flush() throws IOException {
+            if (!segment.isReadable()) {
+                return;
+            }
+            job.fileBytes.add(ExportFileUtil.writeSegment(channel, compression, segment));
+            segment.clear();
+            channel.force(false);
+            Path tmp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+            Files.writeString(tmp, ledgerId + " " + nextEntry + " " + channel.position() + " " + compression);
+            Files.move(tmp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        void close() {
+            segment.release();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("export job {} close file failed", job.jobId, e);
+            }
+        }
+    }
+
+    private static class TransferJob {
+
+        private final String jobId = UUID.randomUUID().toString();
+
+        private final String type;
+
+        private final String file;
+
+        private final long startTime = System.currentTimeMillis();
+
+        private final LongAdder entries = new LongAdder();
+
+        private final LongAdder bytes = new LongAdder();
+
+        private final LongAdder fileBytes = new LongAdder();
+
+        private volatile long ledgerId = -1;
+
+        private volatile ExportCompression compression;
+
+        private volatile JobState state = JobState.Running;
+
+        private volatile String error;
+
+        private volatile long endTime;
+
+        private volatile Disposable disposable;
+
+        TransferJob(String type, String file) {
+            this.type = type;
+            this.file = file;
+        }
+
+        void finish(SignalType signal) {
+            endTime = System.currentTimeMillis();
+            if (signal == SignalType.CANCEL) {
+                state = JobState.Cancelled;
+            } else if (signal == SignalType.ON_ERROR) {
+                state = JobState.Failed;
+            } else {
+                state = JobState.Finished;
+            }
+            LedgerTransferJobResp resp = toResp();
+            log.info("{} job {} {}, {} entries, {} bytes, {} MB/s", type, jobId, state, resp.getEntries(),
+                    resp.getBytes(), String.format("%.1f", resp.getThroughputMbPerSecond()));
+        }
+
+        LedgerTransferJobResp toResp() {
+            long elapsedMs = (endTime == 0 ? System.currentTimeMillis() : endTime) - startTime;
+            LedgerTransferJobResp resp = new LedgerTransferJobResp();
+            resp.setJobId(jobId);
+            resp.setState(state);
+            resp.setLedgerId(ledgerId);
+            resp.setFile(file);
+            resp.setCompression(compression);
+            resp.setEntries(entries.sum());
+            resp.setBytes(bytes.sum());
+            resp.setFileBytes(fileBytes.sum());
+            resp.setThroughputMbPerSecond(elapsedMs > 0 ? bytes.sum() * 1000.0 / elapsedMs / (1 << 20) : 0);
+            resp.setError(error);
+            resp.setStartTime(startTime);
+            resp.setEndTime(endTime);
+            return resp;
+        }
+    }
+
+}
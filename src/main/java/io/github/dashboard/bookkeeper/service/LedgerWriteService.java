@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.service;
+
+import io.github.dashboard.bookkeeper.config.BookkeeperConfig;
+import io.github.dashboard.bookkeeper.metrics.BookkeeperMetrics;
+import io.github.dashboard.bookkeeper.module.AddLedgerEntriesResp;
+import org.apache.bookkeeper.client.BKException;
+import org.apache.bookkeeper.client.LedgerHandle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class LedgerWriteService {
+
+    private final BookkeeperConfig config;
+
+    private final BookkeeperClientService bookkeeperClientService;
+
+    private final LedgerHandleService ledgerHandleService;
+
+    private final LedgerIndexService ledgerIndexService;
+
+    private final BookkeeperMetrics metrics;
+
+    public LedgerWriteService(@Autowired BookkeeperConfig config,
+                              @Autowired BookkeeperClientService bookkeeperClientService,
+                              @Autowired LedgerHandleService ledgerHandleService,
+                              @Autowired LedgerIndexService ledgerIndexService,
+                              @Autowired BookkeeperMetrics metrics) {
+        this.config = config;
+        this.bookkeeperClientService = bookkeeperClientService;
+        this.ledgerHandleService = ledgerHandleService;
+        this.ledgerIndexService = ledgerIndexService;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Creates a ledger owned by this dashboard, its write handle is kept by {@link LedgerHandleService}.
+     */
+    public Mono<Long> createLedger() {
+        return bookkeeperClientService.bookKeeper().flatMap(bookKeeper -> metrics.record(BookkeeperMetrics.CREATE,
+                Mono.<Long>create(sink -> bookKeeper.asyncCreateLedger(config.ensembleSize, config.writeQuorumSize,
+                        config.ackQuorumSize, config.digestType, config.getPassword(), (rc, ledgerHandle, ctx) -> {
+                            if (rc != BKException.Code.OK) {
+                                sink.error(BKException.create(rc));
+                                return;
+                            }
+                            ledgerHandleService.putLedgerHandle(ledgerHandle.getId(), ledgerHandle);
+                            ledgerIndexService.add(ledgerHandle.getId());
+                            sink.success(ledgerHandle.getId());
+                        }, null, Collections.emptyMap()))));
+    }
+
+    /**
+     * Appends the entries in order, keeping up to {@code maxInFlight} adds outstanding instead of waiting for the
+     * quorum of each add before issuing the next one.
+     */
+    public Mono<AddLedgerEntriesResp> appendEntries(long ledgerId, Flux<byte[]> entries, int maxInFlight) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return append(ledgerId, entries, maxInFlight)
+                    .collectList()
+                    .map(entryIds -> {
+                        AddLedgerEntriesResp resp = new AddLedgerEntriesResp();
+                        resp.setLedgerId(ledgerId);
+                        resp.setEntryIds(entryIds.stream().mapToLong(Long::longValue).toArray());
+                        resp.setLatencyMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                        return resp;
+                    });
+        });
+    }
+
+    /**
+     * Emits the entry id of every appended entry, in order.
+     */
+    public Flux<Long> append(long ledgerId, Flux<byte[]> entries, int maxInFlight) {
+        LedgerHandle ledgerHandle = ledgerHandleService.getLedgerHandle(ledgerId);
+        if (ledgerHandle == null) {
+            return Flux.error(new IllegalStateException("This ledger is not owned by me."));
+        }
+        return entries.flatMapSequential(data -> Mono.fromFuture(
+                () -> metrics.record(BookkeeperMetrics.APPEND, () -> ledgerHandle.appendAsync(data))), maxInFlight);
+    }
+
+}
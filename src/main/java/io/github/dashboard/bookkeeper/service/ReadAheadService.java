@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.github.dashboard.bookkeeper.config.BookkeeperConfig;
+import io.github.dashboard.bookkeeper.metrics.BookkeeperMetrics;
+import io.github.dashboard.bookkeeper.module.CacheStatsResp;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ReferenceCountUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.bookkeeper.client.BKException;
+import org.apache.bookkeeper.client.api.LedgerEntries;
+import org.apache.bookkeeper.client.api.LedgerEntry;
+import org.apache.bookkeeper.client.api.ReadHandle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prefetches entries for readers walking a ledger sequentially. Every (ledger, session) pair has its own bounded
+ * buffer of payloads that are prefetched or still in flight. A read starting where the previous read of the session
+ * ended doubles the read-ahead window, up to {@link BookkeeperConfig#readAheadMaxWindow}, any other read resets it
+ * and drops the buffer. Sessions idle for {@link BookkeeperConfig#readAheadIdleSeconds} are dropped with their
+ * buffers.
+ */
+@Slf4j
+@Service
+public class ReadAheadService {
+
+    private final BookkeeperConfig config;
+
+    private final Cache<String, ReadAheadSession> sessions;
+
+    private final LongAdder bufferedReads = new LongAdder();
+
+    private final LongAdder directReads = new LongAdder();
+
+    private final BookkeeperMetrics metrics;
+
+    public ReadAheadService(@Autowired BookkeeperConfig config,
+                            @Autowired BookkeeperMetrics metrics) {
+        this.config = config;
+        this.metrics = metrics;
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(config.readAheadMaxSessions)
+                .expireAfterAccess(Duration.ofSeconds(config.readAheadIdleSeconds))
+                // idle sessions are expired on time rather than on the next cache access, freeing their buffers
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener(ReadAheadService::onRemoval)
+                .recordStats()
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return config.readAheadEnabled;
+    }
+
+    /**
+     * Returns the payloads of [first, last], retained for the caller who must release them. Buffered entries are
+     * served from memory, the others are read from the bookies.
+     */
+    public Mono<List<ByteBuf>> read(ReadHandle readHandle, long first, long last, String session) {
+        return Mono.defer(() -> {
+            ReadAheadSession readAheadSession = sessions.get(readHandle.getId() + "/" + session,
+                    key -> new ReadAheadSession());
+            List<CompletableFuture<ByteBuf>> parts = readAheadSession.read(readHandle, first, last);
+            CompletableFuture<Void> all = CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0]));
+            return Mono.fromFuture(all)
+                    .map(ignore -> {
+                        List<ByteBuf> payloads = new ArrayList<>(parts.size());
+                        parts.forEach(part -> payloads.add(part.join()));
+                        return payloads;
+                    })
+                    .doOnError(e -> releaseWhenDone(parts))
+                    .doOnCancel(() -> releaseWhenDone(parts));
+        });
+    }
+
+    /**
+     * Size counts the sessions, hits and misses count entries served from a read-ahead buffer or read directly.
+     */
+    public CacheStatsResp stats() {
+        CacheStats stats = sessions.stats();
+        CacheStatsResp resp = new CacheStatsResp();
+        resp.setSize(sessions.estimatedSize());
+        resp.setHitCount(bufferedReads.sum());
+        resp.setMissCount(directReads.sum());
+        resp.setEvictionCount(stats.evictionCount());
+        resp.setLoadFailureCount(stats.loadFailureCount());
+        return resp;
+    }
+
+    @PreDestroy
+    public void close() {
+        sessions.invalidateAll();
+    }
+
+    /**
+     * Releases the buffer of a session whatever the cause, expired, evicted or explicitly invalidated.
+     */
+    private static void onRemoval(String key, ReadAheadSession session, RemovalCause cause) {
+        if (session != null) {
+            log.debug("{} read-ahead session removed, cause {}", key, cause);
+            session.close();
+        }
+    }
+
+    private static void releaseWhenDone(List<CompletableFuture<ByteBuf>> parts) {
+        parts.forEach(part -> part.thenAccept(ReferenceCountUtil::safeRelease));
+    }
+
+    /**
+     * Reads [first, last] and returns one future per entry, each completed with a retained slice of the payload.
+     */
+    private List<CompletableFuture<ByteBuf>> readRange(ReadHandle readHandle, long first, long last) {
+        List<CompletableFuture<ByteBuf>> futures = new ArrayList<>((int) (last - first + 1));
+        for (long entryId = first; entryId <= last; entryId++) {
+            futures.add(new CompletableFuture<>());
+        }
+        metrics.readAsync(readHandle, first, last).whenComplete((LedgerEntries entries, Throwable e) -> {
+            if (e != null) {
+                futures.forEach(future -> future.completeExceptionally(e));
+                return;
+            }
+            try (entries) {
+                for (LedgerEntry ledgerEntry : entries) {
+                    futures.get((int) (ledgerEntry.getEntryId() - first))
+                            .complete(ledgerEntry.getEntryBuffer().retainedSlice());
+                }
+            }
+            futures.forEach(future -> future.completeExceptionally(new BKException.BKNoSuchEntryException()));
+        });
+        return futures;
+    }
+
+    private class ReadAheadSession {
+
+        private final NavigableMap<Long, BufferedPart> buffer = new TreeMap<>();
+
+        private long nextExpected = -1;
+
+        private int window = config.readAheadInitialWindow;
+
+        private long bufferedBytes;
+
+        private boolean closed;
+
+        synchronized List<CompletableFuture<ByteBuf>> read(ReadHandle readHandle, long first, long last) {
+            if (first == nextExpected) {
+                drop(buffer.headMap(first, false));
+                window = Math.min(config.readAheadMaxWindow, window * 2);
+            } else {
+                drop(buffer);
+                window = config.readAheadInitialWindow;
+            }
+            List<CompletableFuture<ByteBuf>> parts = new ArrayList<>((int) (last - first + 1));
+            long missingFirst = -1;
+            for (long entryId = first; entryId <= last; entryId++) {
+                BufferedPart part = buffer.remove(entryId);
+                if (part == null) {
+                    directReads.increment();
+                    missingFirst = missingFirst < 0 ? entryId : missingFirst;
+                    continue;
+                }
+                bufferedReads.increment();
+                if (missingFirst >= 0) {
+                    parts.addAll(readRange(readHandle, missingFirst, entryId - 1));
+                    missingFirst = -1;
+                }
+                uncount(part);
+                parts.add(part.future);
+            }
+            if (missingFirst >= 0) {
+                parts.addAll(readRange(readHandle, missingFirst, last));
+            }
+            boolean sequential = first == nextExpected;
+            nextExpected = last + 1;
+            if (sequential && !closed) {
+                prefetch(readHandle, last);
+            }
+            return parts;
+        }
+
+        private void prefetch(ReadHandle readHandle, long last) {
+            long from = buffer.isEmpty() ? last + 1 : Math.max(last + 1, buffer.lastKey() + 1);
+            long to = Math.min(readHandle.getLastAddConfirmed(), last + window);
+            int batchSize = config.readBatchSize;
+            for (long start = from; start <= to && bufferedBytes < config.readAheadMaxBytes; start += batchSize) {
+                long end = Math.min(to, start + batchSize - 1);
+                List<CompletableFuture<ByteBuf>> futures = readRange(readHandle, start, end);
+                for (int i = 0; i < futures.size(); i++) {
+                    long entryId = start + i;
+                    BufferedPart part = new BufferedPart(futures.get(i));
+                    buffer.put(entryId, part);
+                    part.future.thenAccept(payload -> onPrefetched(entryId, part, payload));
+                }
+            }
+        }
+
+        /**
+         * Counts the payload of a part still in the buffer, a part taken out before its read completed is never
+         * counted.
+         */
+        private synchronized void onPrefetched(long entryId, BufferedPart part, ByteBuf payload) {
+            if (buffer.get(entryId) == part) {
+                part.countedBytes = payload.readableBytes();
+                bufferedBytes += part.countedBytes;
+            }
+        }
+
+        private void uncount(BufferedPart part) {
+            bufferedBytes -= part.countedBytes;
+            part.countedBytes = 0;
+        }
+
+        private void drop(Map<Long, BufferedPart> dropped) {
+            for (BufferedPart part : dropped.values()) {
+                uncount(part);
+                part.future.thenAccept(ReferenceCountUtil::safeRelease);
+            }
+            dropped.clear();
+        }
+
+        synchronized void close() {
+            closed = true;
+            drop(buffer);
+        }
+
+    }
+
+    /**
+     * A buffered entry and the bytes it added to the buffered size, zero until its payload is counted.
+     */
+    private static class BufferedPart {
+
+        private final CompletableFuture<ByteBuf> future;
+
+        private long countedBytes;
+
+        BufferedPart(CompletableFuture<ByteBuf> future) {
+            this.future = future;
+        }
+
+    }
+
+}
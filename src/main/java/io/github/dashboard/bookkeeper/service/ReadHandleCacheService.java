@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.github.dashboard.bookkeeper.config.BookkeeperConfig;
+import io.github.dashboard.bookkeeper.metrics.BookkeeperMetrics;
+import io.github.dashboard.bookkeeper.module.CacheStatsResp;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.bookkeeper.client.api.ReadHandle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Caches no-recovery read handles by ledger id, so browsing a ledger does not pay a metadata fetch per request.
+ * Handles are closed when they are evicted.
+ */
+@Slf4j
+@Service
+public class ReadHandleCacheService {
+
+    private final BookkeeperConfig config;
+
+    private final BookkeeperClientService bookkeeperClientService;
+
+    private final AsyncLoadingCache<Long, ReadHandle> cache;
+
+    private final BookkeeperMetrics metrics;
+
+    public ReadHandleCacheService(@Autowired BookkeeperConfig config,
+                                  @Autowired BookkeeperClientService bookkeeperClientService,
+                                  @Autowired BookkeeperMetrics metrics) {
+        this.config = config;
+        this.bookkeeperClientService = bookkeeperClientService;
+        this.metrics = metrics;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.readHandleCacheSize)
+                .expireAfterAccess(Duration.ofSeconds(config.readHandleIdleSeconds))
+                // idle handles are closed on time rather than on the next cache access
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener(this::onRemoval)
+                .recordStats()
+                .buildAsync((ledgerId, executor) -> openLedgerNoRecovery(ledgerId));
+        metrics.gauge("read.handles", () -> cache.synchronous().estimatedSize());
+        // handles opened by a previous client stop working once it is closed
+        bookkeeperClientService.onConnected(zooKeeper -> cache.synchronous().invalidateAll());
+    }
+
+    /**
+     * The cached future is shared by all callers, so a cancelled subscriber must not cancel it.
+     */
+    public Mono<ReadHandle> getReadHandle(long ledgerId) {
+        return Mono.fromFuture(() -> cache.get(ledgerId), true);
+    }
+
+    public void invalidate(long ledgerId) {
+        cache.synchronous().invalidate(ledgerId);
+    }
+
+    public CacheStatsResp stats() {
+        CacheStats stats = cache.synchronous().stats();
+        CacheStatsResp resp = new CacheStatsResp();
+        resp.setSize(cache.synchronous().estimatedSize());
+        resp.setHitCount(stats.hitCount());
+        resp.setMissCount(stats.missCount());
+        resp.setEvictionCount(stats.evictionCount());
+        resp.setLoadFailureCount(stats.loadFailureCount());
+        return resp;
+    }
+
+    @PreDestroy
+    public void close() {
+        cache.synchronous().invalidateAll();
+    }
+
+    private CompletableFuture<ReadHandle> openLedgerNoRecovery(long ledgerId) {
+        return bookkeeperClientService.bookKeeper().toFuture()
+                .thenCompose(bookKeeper -> metrics.record(BookkeeperMetrics.OPEN, () -> bookKeeper.newOpenLedgerOp()
+                        .withLedgerId(ledgerId)
+                        .withDigestType(config.getApiDigestType())
+                        .withPassword(config.getPassword())
+                        .withRecovery(false)
+                        .execute()));
+    }
+
+    private void onRemoval(Long ledgerId, ReadHandle readHandle, RemovalCause cause) {
+        if (readHandle == null) {
+            return;
+        }
+        log.debug("{} read handle removed, cause {}", ledgerId, cause);
+        readHandle.closeAsync().exceptionally(e -> {
+            log.warn("{} close read handle failed", ledgerId, e);
+            return null;
+        });
+    }
+
+}
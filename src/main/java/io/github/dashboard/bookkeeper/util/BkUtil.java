@@ -19,34 +19,97 @@
 
 package io.github.dashboard.bookkeeper.util;
 
+import io.github.dashboard.bookkeeper.decode.EntryDecoder;
+import io.github.dashboard.bookkeeper.module.DecodeOptions;
+import io.github.dashboard.bookkeeper.module.EntryEncoding;
 import io.github.dashboard.bookkeeper.module.GetLedgerEntryResp;
-import org.apache.bookkeeper.client.LedgerEntry;
+import io.github.dashboard.bookkeeper.module.IdEncoding;
+import io.github.dashboard.bookkeeper.module.LedgerIdPage;
+import io.netty.buffer.ByteBuf;
+import org.apache.bookkeeper.client.api.LedgerEntry;
 import org.apache.commons.lang3.StringUtils;
-import org.jetbrains.annotations.Nullable;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 
 public class BkUtil {
 
-    public static GetLedgerEntryResp convert(LedgerEntry ledgerEntry,
-                                             @Nullable String component, @Nullable String namespace) throws Exception {
+    /**
+     * Decodes straight from the entry buffer, the buffer stays owned by the entry.
+     */
+    public static GetLedgerEntryResp convert(LedgerEntry ledgerEntry, EntryDecoder decoder, DecodeOptions options)
+            throws Exception {
+        return convert(ledgerEntry.getLedgerId(), ledgerEntry.getEntryId(), ledgerEntry.getEntryBuffer(), decoder,
+                options);
+    }
+
+    public static GetLedgerEntryResp convert(long ledgerId, long entryId, ByteBuf payload, EntryDecoder decoder,
+                                             DecodeOptions options) throws Exception {
         GetLedgerEntryResp getLedgerEntryResp = new GetLedgerEntryResp();
-        getLedgerEntryResp.setLedgerId(ledgerEntry.getLedgerId());
-        getLedgerEntryResp.setEntryId(ledgerEntry.getEntryId());
-        getLedgerEntryResp.setLength(ledgerEntry.getLength());
-        getLedgerEntryResp.setContent(getContent(ledgerEntry.getEntry(), component, namespace));
+        getLedgerEntryResp.setLedgerId(ledgerId);
+        getLedgerEntryResp.setEntryId(entryId);
+        getLedgerEntryResp.setLength(payload.readableBytes());
+        Object decoded = decoder.decode(payload, options);
+        if (decoded instanceof String content) {
+            getLedgerEntryResp.setContent(content);
+        } else {
+            getLedgerEntryResp.setDecoded(decoded);
+        }
         return getLedgerEntryResp;
     }
 
-    private static String getContent(byte[] data,
-                                     @Nullable String component, @Nullable String namespace) throws Exception {
-        if (StringUtils.isEmpty(component)) {
-            return new String(data, StandardCharsets.UTF_8);
+    /**
+     * Wraps a sorted id buffer into a page, delta encoding it in place when asked to.
+     */
+    public static LedgerIdPage toLedgerIdPage(long[] ledgerIds, boolean more, IdEncoding encoding) {
+        LedgerIdPage page = new LedgerIdPage();
+        page.setEncoding(encoding);
+        if (more && ledgerIds.length > 0) {
+            page.setNextCursor(ledgerIds[ledgerIds.length - 1]);
         }
-        if ("hex".equalsIgnoreCase(component)) {
-            return HexUtil.bytes2hex(data);
-        } else {
-            return DecodeUtil.decodeData(data, component, namespace);
+        if (encoding == IdEncoding.Delta) {
+            for (int i = ledgerIds.length - 1; i > 0; i--) {
+                ledgerIds[i] -= ledgerIds[i - 1];
+            }
+        }
+        page.setLedgerIds(ledgerIds);
+        return page;
+    }
+
+    /**
+     * Parses the ledger id from a ledger znode path such as {@code /ledgers/00/0000/L0001}, works for the flat,
+     * hierarchical and long hierarchical layouts. Returns -1 when the path is not a ledger node.
+     */
+    public static long parseLedgerId(String rootPath, String path) {
+        if (!path.startsWith(rootPath + "/")) {
+            return -1;
+        }
+        String[] parts = path.substring(rootPath.length() + 1).split("/");
+        StringBuilder digits = new StringBuilder(19);
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            if (i == parts.length - 1) {
+                if (!part.startsWith("L")) {
+                    return -1;
+                }
+                part = part.substring(1);
+            }
+            if (!StringUtils.isNumeric(part)) {
+                return -1;
+            }
+            digits.append(part);
+        }
+        return Long.parseLong(digits.toString());
+    }
+
+    public static byte[] decodeContent(String content, EntryEncoding encoding) {
+        switch (encoding) {
+            case Base64:
+                return Base64.getDecoder().decode(content);
+            case Hex:
+                return HexUtil.hexToByteArray(content);
+            default:
+                return content.getBytes(StandardCharsets.UTF_8);
         }
     }
 
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * Binary framing of ledger entries: every entry is written as its entry id (8 bytes), its payload length (4 bytes)
+ * and the payload, all big endian.
+ */
+public class EntryFrameUtil {
+
+    public static final int HEADER_SIZE = 12;
+
+    public static ByteBuf header(ByteBufAllocator allocator, long entryId, int length) {
+        ByteBuf header = allocator.buffer(HEADER_SIZE, HEADER_SIZE);
+        header.writeLong(entryId);
+        header.writeInt(length);
+        return header;
+    }
+
+    public static void writeFrame(ByteBuf dst, long entryId, ByteBuf payload) {
+        dst.writeLong(entryId);
+        dst.writeInt(payload.readableBytes());
+        dst.writeBytes(payload, payload.readerIndex(), payload.readableBytes());
+    }
+
+}
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.util;
+
+import io.airlift.compress.MalformedInputException;
+import io.airlift.compress.zstd.ZstdCompressor;
+import io.airlift.compress.zstd.ZstdDecompressor;
+import io.github.dashboard.bookkeeper.module.ExportCompression;
+import io.netty.buffer.ByteBuf;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Layout of ledger export files: {@link EntryFrameUtil} frames written in segments. An uncompressed segment is the
+ * frames as is, a gzip segment is one gzip member and a zstd segment is one zstd frame, preceded by a skippable frame
+ * holding its compressed and uncompressed size. Such files are still readable by gunzip and zstd, and a file cut
+ * after any segment is valid.
+ */
+public class ExportFileUtil {
+
+    private static final int ZSTD_SKIPPABLE_MAGIC = 0x184D2A50;
+
+    private static final int ZSTD_SEGMENT_HEADER_SIZE = 16;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Writes the readable bytes of {@code frames}, a heap buffer, as one segment and returns the bytes written.
+     */
+    public static long writeSegment(FileChannel channel, ExportCompression compression, ByteBuf frames)
+            throws IOException {
+        byte[] array = frames.array();
+        int offset = frames.arrayOffset() + frames.readerIndex();
+        int length = frames.readableBytes();
+        switch (compression) {
+            case None:
+                return writeFully(channel, ByteBuffer.wrap(array, offset, length));
+            case Gzip:
+                ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2 + 64);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE)) {
+                    gzip.write(array, offset, length);
+                }
+                return writeFully(channel, ByteBuffer.wrap(out.toByteArray()));
+            case Zstd:
+                ZstdCompressor compressor = new ZstdCompressor();
+                byte[] compressed = new byte[compressor.maxCompressedLength(length)];
+                int compressedLength = compressor.compress(array, offset, length, compressed, 0, compressed.length);
+                ByteBuffer header = ByteBuffer.allocate(ZSTD_SEGMENT_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(ZSTD_SKIPPABLE_MAGIC).putInt(ZSTD_SEGMENT_HEADER_SIZE - 8)
+                        .putInt(compressedLength).putInt(length).flip();
+                return writeFully(channel, header)
+                        + writeFully(channel, ByteBuffer.wrap(compressed, 0, compressedLength));
+            default:
+                throw new IllegalArgumentException("unknown compression " + compression);
+        }
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return length;
+    }
+
+    /**
+     * Detects the compression from the first bytes of the file.
+     */
+    public static ExportCompression detect(FileChannel channel) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        while (head.hasRemaining()) {
+            if (channel.read(head, head.position()) <= 0) {
+                break;
+            }
+        }
+        if (head.position() >= 2 && (head.get(0) & 0xff) == 0x1f && (head.get(1) & 0xff) == 0x8b) {
+            return ExportCompression.Gzip;
+        }
+        if (head.position() == 4 && head.getInt(0) == ZSTD_SKIPPABLE_MAGIC) {
+            return ExportCompression.Zstd;
+        }
+        return ExportCompression.None;
+    }
+
+    /**
+     * Opens the frames of an export file as one uncompressed stream, reading from the current channel position.
+     */
+    public static DataInputStream openFrames(FileChannel channel, ExportCompression compression) throws IOException {
+        InputStream in = new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE);
+        switch (compression) {
+            case None:
+                return new DataInputStream(in);
+            case Gzip:
+                return new DataInputStream(new GZIPInputStream(in, BUFFER_SIZE));
+            case Zstd:
+                return new DataInputStream(new ZstdSegmentInputStream(new DataInputStream(in)));
+            default:
+                throw new IllegalArgumentException("unknown compression " + compression);
+        }
+    }
+
+    /**
+     * Reads the payload of the next frame, or returns null at the end of the stream.
+     */
+    public static @Nullable byte[] readFramePayload(DataInputStream in) throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            return null;
+        }
+        in.skipNBytes(7);
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("invalid frame length " + length);
+        }
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return payload;
+    }
+
+    private static class ZstdSegmentInputStream extends InputStream {
+
+        private final DataInputStream in;
+
+        private final ZstdDecompressor decompressor = new ZstdDecompressor();
+
+        private final byte[] header = new byte[ZSTD_SEGMENT_HEADER_SIZE];
+
+        private byte[] segment = new byte[0];
+
+        private int position;
+
+        private int limit;
+
+        ZstdSegmentInputStream(DataInputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return fill() ? segment[position++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(len, limit - position);
+            System.arraycopy(segment, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private boolean fill() throws IOException {
+            while (position == limit) {
+                int first = in.read();
+                if (first < 0) {
+                    return false;
+                }
+                header[0] = (byte) first;
+                in.readFully(header, 1, header.length - 1);
+                ByteBuffer buffer = ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN);
+                if (buffer.getInt(0) != ZSTD_SKIPPABLE_MAGIC) {
+                    throw new IOException("missing zstd segment header");
+                }
+                int compressedLength = buffer.getInt(8);
+                int length = buffer.getInt(12);
+                if (compressedLength < 0 || length < 0) {
+                    throw new IOException("invalid zstd segment sizes " + compressedLength + " and " + length);
+                }
+                byte[] compressed = new byte[compressedLength];
+                in.readFully(compressed);
+                if (segment.length < length) {
+                    segment = new byte[length];
+                }
+                try {
+                    limit = decompressor.decompress(compressed, 0, compressedLength, segment, 0, length);
+                } catch (MalformedInputException e) {
+                    throw new IOException("malformed zstd segment", e);
+                }
+                if (limit != length) {
+                    throw new IOException("zstd segment decompressed to " + limit + " bytes, expected " + length);
+                }
+                position = 0;
+            }
+            return true;
+        }
+    }
+
+}
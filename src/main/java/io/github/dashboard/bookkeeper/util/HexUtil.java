@@ -19,35 +19,181 @@
 
 package io.github.dashboard.bookkeeper.util;
 
+import io.netty.buffer.ByteBuf;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Table driven hex codec. Encoding writes into caller supplied arrays or buffers so that large payloads can be
+ * converted without intermediate copies, the {@link ByteBuf} variants leave the reader index of the source alone.
+ */
 public class HexUtil {
 
-    private static final String HEX = "0123456789abcdef";
+    private static final byte[] DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final char[] ENCODE_CHARS = new char[512];
+
+    private static final byte[] ENCODE_BYTES = new byte[512];
+
+    private static final short[] ENCODE_SHORTS = new short[256];
+
+    private static final byte[] DECODE = new byte[128];
+
+    private static final int DUMP_LINE_BYTES = 16;
+
+    /**
+     * offset (8) + 2 spaces + 16 * "xx " + 2 group spaces + "|" + 16 ascii + "|" + newline.
+     */
+    private static final int DUMP_LINE_LENGTH = 79;
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            byte high = DIGITS[i >>> 4];
+            byte low = DIGITS[i & 0x0f];
+            ENCODE_BYTES[i << 1] = high;
+            ENCODE_BYTES[(i << 1) + 1] = low;
+            ENCODE_CHARS[i << 1] = (char) high;
+            ENCODE_CHARS[(i << 1) + 1] = (char) low;
+            ENCODE_SHORTS[i] = (short) ((high << 8) | low);
+        }
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            DECODE['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            DECODE['a' + i] = (byte) (10 + i);
+            DECODE['A' + i] = (byte) (10 + i);
+        }
+    }
 
     public static String bytes2hex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder(bytes.length * 2);
-        for (byte b : bytes) {
-            sb.append(HEX.charAt((b >> 4) & 0x0f));
-            sb.append(HEX.charAt(b & 0x0f));
+        byte[] out = new byte[bytes.length << 1];
+        encode(bytes, 0, bytes.length, out, 0);
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Encodes the readable bytes of {@code data}.
+     */
+    public static String bytes2hex(ByteBuf data) {
+        int length = data.readableBytes();
+        byte[] out = new byte[length << 1];
+        if (data.hasArray()) {
+            encode(data.array(), data.arrayOffset() + data.readerIndex(), length, out, 0);
+        } else {
+            int readerIndex = data.readerIndex();
+            for (int i = 0; i < length; i++) {
+                int index = (data.getByte(readerIndex + i) & 0xff) << 1;
+                out[i << 1] = ENCODE_BYTES[index];
+                out[(i << 1) + 1] = ENCODE_BYTES[index + 1];
+            }
         }
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
 
-        return sb.toString();
+    public static void encode(byte[] src, int srcOffset, int length, char[] dst, int dstOffset) {
+        for (int i = 0; i < length; i++) {
+            int index = (src[srcOffset + i] & 0xff) << 1;
+            dst[dstOffset++] = ENCODE_CHARS[index];
+            dst[dstOffset++] = ENCODE_CHARS[index + 1];
+        }
     }
 
+    public static void encode(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset) {
+        for (int i = 0; i < length; i++) {
+            int index = (src[srcOffset + i] & 0xff) << 1;
+            dst[dstOffset++] = ENCODE_BYTES[index];
+            dst[dstOffset++] = ENCODE_BYTES[index + 1];
+        }
+    }
+
+    /**
+     * Appends the hex of the readable bytes of {@code src} to {@code dst} as ASCII.
+     */
+    public static void encode(ByteBuf src, ByteBuf dst) {
+        int length = src.readableBytes();
+        dst.ensureWritable(length << 1);
+        int readerIndex = src.readerIndex();
+        if (src.hasArray() && dst.hasArray()) {
+            encode(src.array(), src.arrayOffset() + readerIndex, length,
+                    dst.array(), dst.arrayOffset() + dst.writerIndex());
+            dst.writerIndex(dst.writerIndex() + (length << 1));
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            dst.writeShort(ENCODE_SHORTS[src.getByte(readerIndex + i) & 0xff]);
+        }
+    }
+
+    /**
+     * Appends a {@code hexdump -C} style view of the readable bytes of {@code src} to {@code dst}, offsets start at
+     * {@code offset} so that a payload can be dumped chunk by chunk.
+     */
+    public static void dump(ByteBuf src, long offset, ByteBuf dst) {
+        int length = src.readableBytes();
+        int lines = (length + DUMP_LINE_BYTES - 1) / DUMP_LINE_BYTES;
+        dst.ensureWritable(lines * DUMP_LINE_LENGTH);
+        int readerIndex = src.readerIndex();
+        for (int line = 0; line < lines; line++) {
+            int lineStart = line * DUMP_LINE_BYTES;
+            int lineBytes = Math.min(DUMP_LINE_BYTES, length - lineStart);
+            long lineOffset = offset + lineStart;
+            for (int shift = 28; shift >= 0; shift -= 4) {
+                dst.writeByte(DIGITS[(int) (lineOffset >>> shift) & 0x0f]);
+            }
+            dst.writeByte(' ');
+            for (int i = 0; i < DUMP_LINE_BYTES; i++) {
+                if (i == 0 || i == DUMP_LINE_BYTES / 2) {
+                    dst.writeByte(' ');
+                }
+                if (i < lineBytes) {
+                    dst.writeShort(ENCODE_SHORTS[src.getByte(readerIndex + lineStart + i) & 0xff]);
+                } else {
+                    dst.writeShort(0x2020);
+                }
+                dst.writeByte(' ');
+            }
+            dst.writeByte(' ');
+            dst.writeByte('|');
+            for (int i = 0; i < lineBytes; i++) {
+                byte b = src.getByte(readerIndex + lineStart + i);
+                dst.writeByte(b >= 0x20 && b < 0x7f ? b : '.');
+            }
+            dst.writeByte('|');
+            dst.writeByte('\n');
+        }
+    }
+
+    public static int dumpLength(int length) {
+        return (length + DUMP_LINE_BYTES - 1) / DUMP_LINE_BYTES * DUMP_LINE_LENGTH;
+    }
+
+    /**
+     * Decodes a hex string, an odd number of digits is read as if it had a leading zero.
+     */
     public static byte[] hexToByteArray(String inHex) {
         int hexLen = inHex.length();
-        byte[] result;
-        if (hexLen % 2 != 0) {
-            hexLen++;
-            result = new byte[(hexLen / 2)];
-            inHex = "0" + inHex;
-        } else {
-            result = new byte[(hexLen / 2)];
-        }
+        int odd = hexLen & 1;
+        byte[] result = new byte[(hexLen + odd) >> 1];
+        int i = 0;
         int j = 0;
-        for (int i = 0; i < hexLen; i += 2) {
-            result[j] = (byte) Integer.parseInt(inHex.substring(i, i + 2), 16);
-            j++;
+        if (odd == 1) {
+            result[j++] = (byte) digit(inHex, i++);
+        }
+        while (i < hexLen) {
+            result[j++] = (byte) ((digit(inHex, i) << 4) | digit(inHex, i + 1));
+            i += 2;
         }
         return result;
     }
+
+    private static int digit(String hex, int index) {
+        char c = hex.charAt(index);
+        int digit = c < DECODE.length ? DECODE[c] : -1;
+        if (digit < 0) {
+            throw new IllegalArgumentException("invalid hex character '" + c + "' at index " + index);
+        }
+        return digit;
+    }
 }
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.web;
+
+import io.github.dashboard.bookkeeper.util.HexUtil;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A static file held in memory, together with its compressed variants.
+ */
+final class StaticAsset {
+
+    /**
+     * Bundler output like {@code index-4b1f9c2e.js} or {@code main.4b1f9c2e.css}, such a name changes with the content.
+     * Only hex hashes mixing digits and letters count, so versions and dates in a name are not cached for good, a
+     * name that is not recognized is still revalidated by its ETag.
+     */
+    private static final Pattern HASHED_NAME =
+            Pattern.compile("[.-](?=[0-9a-f]*[0-9])(?=[0-9a-f]*[a-f])[0-9a-f]{8,}(?:\\.\\w+)+$");
+
+    final MediaType mediaType;
+
+    final boolean hashedName;
+
+    final Variant identity;
+
+    @Nullable
+    final Variant gzip;
+
+    @Nullable
+    final Variant brotli;
+
+    private StaticAsset(MediaType mediaType, boolean hashedName, Variant identity,
+                        @Nullable Variant gzip, @Nullable Variant brotli) {
+        this.mediaType = mediaType;
+        this.hashedName = hashedName;
+        this.identity = identity;
+        this.gzip = gzip;
+        this.brotli = brotli;
+    }
+
+    /**
+     * The precompressed content comes from {@code .gz} and {@code .br} files next to the asset, gzip is compressed
+     * here when there is no such file.
+     */
+    static StaticAsset create(String name, byte[] content, @Nullable byte[] gzipContent,
+                              @Nullable byte[] brotliContent, int gzipMinBytes) {
+        MediaType mediaType = MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        String hash = hash(content);
+        Variant gzip = null;
+        if (gzipContent != null) {
+            gzip = new Variant(gzipContent, "gzip", hash + "-gz");
+        } else if (content.length >= gzipMinBytes && isCompressible(mediaType)) {
+            byte[] compressed = gzip(content);
+            if (compressed.length < content.length) {
+                gzip = new Variant(compressed, "gzip", hash + "-gz");
+            }
+        }
+        Variant brotli = brotliContent == null ? null : new Variant(brotliContent, "br", hash + "-br");
+        String fileName = name.substring(name.lastIndexOf('/') + 1);
+        return new StaticAsset(mediaType, HASHED_NAME.matcher(fileName).find(),
+                new Variant(content, null, hash), gzip, brotli);
+    }
+
+    boolean hasVariants() {
+        return gzip != null || brotli != null;
+    }
+
+    /**
+     * Picks the smallest variant the client accepts, by the Accept-Encoding request headers.
+     */
+    Variant select(List<String> acceptEncoding) {
+        if (brotli != null && accepts(acceptEncoding, "br")) {
+            return brotli;
+        }
+        if (gzip != null && accepts(acceptEncoding, "gzip")) {
+            return gzip;
+        }
+        return identity;
+    }
+
+    static boolean accepts(List<String> acceptEncoding, String coding) {
+        Double explicit = null;
+        Double wildcard = null;
+        for (String header : acceptEncoding) {
+            for (String element : header.split(",")) {
+                String[] params = element.split(";");
+                String name = params[0].trim();
+                boolean matches = name.equalsIgnoreCase(coding);
+                if (!matches && !"*".equals(name)) {
+                    continue;
+                }
+                double quality = 1;
+                for (int i = 1; i < params.length; i++) {
+                    String param = params[i].trim();
+                    if (param.startsWith("q=")) {
+                        try {
+                            quality = Double.parseDouble(param.substring(2));
+                        } catch (NumberFormatException e) {
+                            quality = 0;
+                        }
+                    }
+                }
+                if (matches) {
+                    explicit = quality;
+                } else {
+                    wildcard = quality;
+                }
+            }
+        }
+        Double quality = explicit != null ? explicit : wildcard;
+        return quality != null && quality > 0;
+    }
+
+    private static boolean isCompressible(MediaType mediaType) {
+        String subtype = mediaType.getSubtype();
+        return "text".equals(mediaType.getType()) || subtype.endsWith("json") || subtype.endsWith("xml")
+                || "javascript".equals(subtype) || "wasm".equals(subtype);
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexUtil.bytes2hex(Arrays.copyOf(digest, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static final class Variant {
+
+        final byte[] content;
+
+        @Nullable
+        final String encoding;
+
+        /**
+         * Strong entity tag, quoted. Every encoding has its own tag as the bytes differ.
+         */
+        final String etag;
+
+        private Variant(byte[] content, @Nullable String encoding, String tag) {
+            this.content = content;
+            this.encoding = encoding;
+            this.etag = "\"" + tag + "\"";
+        }
+
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.web;
+
+import io.github.dashboard.bookkeeper.config.StaticConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.util.UriUtils;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Serves {@link StaticAssets} with content negotiation and validators. Hashed asset names are cached for good, other
+ * files like index.html are revalidated by their ETag on every use.
+ */
+@Component
+public class StaticAssetHandler {
+
+    private final StaticAssets staticAssets;
+
+    private final String immutableCacheControl;
+
+    private final String revalidateCacheControl = CacheControl.noCache().getHeaderValue();
+
+    public StaticAssetHandler(@Autowired StaticConfig config,
+                              @Autowired StaticAssets staticAssets) {
+        this.staticAssets = staticAssets;
+        this.immutableCacheControl = "public, max-age=" + config.immutableMaxAgeSeconds + ", immutable";
+    }
+
+    /**
+     * Routes GET and HEAD requests of known assets, everything else falls through to the controllers.
+     */
+    public Mono<HandlerFunction<ServerResponse>> route(ServerRequest request) {
+        if (!HttpMethod.GET.equals(request.method()) && !HttpMethod.HEAD.equals(request.method())) {
+            return Mono.empty();
+        }
+        StaticAsset asset = staticAssets.find(UriUtils.decode(request.path(), StandardCharsets.UTF_8));
+        if (asset == null) {
+            return Mono.empty();
+        }
+        return Mono.just(req -> serve(req, asset));
+    }
+
+    private Mono<ServerResponse> serve(ServerRequest request, StaticAsset asset) {
+        StaticAsset.Variant variant = asset.select(request.headers().header(HttpHeaders.ACCEPT_ENCODING));
+        String cacheControl = asset.hashedName ? immutableCacheControl : revalidateCacheControl;
+        boolean notModified = matches(request.headers().header(HttpHeaders.IF_NONE_MATCH), variant.etag);
+        HttpStatus status = notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK;
+        ServerResponse.BodyBuilder builder = ServerResponse.status(status)
+                .eTag(variant.etag)
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (asset.hasVariants()) {
+            builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (notModified) {
+            return builder.build();
+        }
+        if (variant.encoding != null) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, variant.encoding);
+        }
+        return builder.contentType(asset.mediaType)
+                .contentLength(variant.content.length)
+                .bodyValue(variant.content);
+    }
+
+    /**
+     * If-None-Match uses the weak comparison, so a W/ prefix added by a proxy still matches.
+     */
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        for (String header : ifNoneMatch) {
+            for (String element : header.split(",")) {
+                String tag = element.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if ("*".equals(tag) || etag.equals(tag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.web;
+
+import io.github.dashboard.bookkeeper.config.StaticConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The files of {@link StaticConfig#path}, read once into memory and replaced as a whole on reload.
+ */
+@Slf4j
+@Component
+public class StaticAssets {
+
+    private static final long WATCH_QUIET_MILLIS = 200;
+
+    private final StaticConfig config;
+
+    @Nullable
+    private final Path root;
+
+    private volatile Map<String, StaticAsset> assets = Collections.emptyMap();
+
+    private WatchService watchService;
+
+    public StaticAssets(@Autowired StaticConfig config) {
+        this.config = config;
+        this.root = config.path.isBlank() ? null : Paths.get(config.path).toAbsolutePath().normalize();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (root == null) {
+            log.info("STATIC_PATH is not set, the portal is not served");
+            return;
+        }
+        if (!Files.isDirectory(root)) {
+            log.warn("static path {} is not a directory, the portal is not served", root);
+            return;
+        }
+        reload();
+        if (config.watch) {
+            watchService = FileSystems.getDefault().newWatchService();
+            register();
+            Thread thread = new Thread(this::watch, "static-watch");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * Returns the asset of a decoded request path, a path ending with a slash maps to its index.html.
+     */
+    @Nullable StaticAsset find(String requestPath) {
+        String name = requestPath.startsWith("/") ? requestPath.substring(1) : requestPath;
+        if (name.isEmpty() || name.endsWith("/")) {
+            name = name + "index.html";
+        }
+        return assets.get(name);
+    }
+
+    private void reload() {
+        try {
+            assets = load(root);
+        } catch (IOException | RuntimeException e) {
+            log.error("failed to load static assets from {}, keep the previous ones", root, e);
+        }
+    }
+
+    private Map<String, StaticAsset> load(Path dir) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            files = paths.filter(Files::isRegularFile)
+                    .filter(path -> !dir.relativize(path).toString().startsWith("."))
+                    .collect(Collectors.toList());
+        }
+        Set<Path> fileSet = Set.copyOf(files);
+        Map<String, StaticAsset> result = new HashMap<>();
+        long bytes = 0;
+        for (Path file : files) {
+            String fileName = file.getFileName().toString();
+            if ((fileName.endsWith(".gz") || fileName.endsWith(".br"))
+                    && fileSet.contains(file.resolveSibling(fileName.substring(0, fileName.length() - 3)))) {
+                continue;
+            }
+            String name = dir.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+            StaticAsset asset = StaticAsset.create(name, Files.readAllBytes(file),
+                    readSibling(fileSet, file, ".gz"), readSibling(fileSet, file, ".br"), config.gzipMinBytes);
+            result.put(name, asset);
+            bytes += asset.identity.content.length;
+        }
+        log.info("loaded {} static assets of {} bytes from {}", result.size(), bytes, dir);
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static @Nullable byte[] readSibling(Set<Path> fileSet, Path file, String suffix) throws IOException {
+        Path sibling = file.resolveSibling(file.getFileName() + suffix);
+        return fileSet.contains(sibling) ? Files.readAllBytes(sibling) : null;
+    }
+
+    private void register() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path dir : paths.filter(Files::isDirectory).collect(Collectors.toList())) {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+    }
+
+    /**
+     * Waits until the directory stays quiet for a moment, a portal build writes many files at once.
+     */
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                while (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                    key = watchService.poll(WATCH_QUIET_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                register();
+                reload();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            log.debug("stop watching {}", root);
+        } catch (IOException e) {
+            log.error("stop watching {}", root, e);
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.decode;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+class ProtobufReaderTest {
+
+    @Test
+    void readsFieldsWrittenByProtobuf() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CodedOutputStream output = CodedOutputStream.newInstance(out);
+        output.writeUInt64(1, 300);
+        output.writeString(2, "h\u00e9llo");
+        output.writeFixed64(3, 42);
+        output.writeFixed32(4, 7);
+        output.writeBool(5, true);
+        output.writeBytes(6, ByteString.copyFrom(new byte[]{1, 2, 3}));
+        output.writeInt64(7, -1);
+        output.writeUInt64(8, Long.MAX_VALUE);
+        output.flush();
+
+        ProtobufReader reader = new ProtobufReader(Unpooled.wrappedBuffer(out.toByteArray()));
+        Assertions.assertEquals(1, ProtobufReader.fieldNumber(reader.readTag()));
+        Assertions.assertEquals(300L, reader.readVarint());
+        Assertions.assertEquals(2, ProtobufReader.fieldNumber(reader.readTag()));
+        Assertions.assertEquals("h\u00e9llo", reader.readString());
+        reader.skip(reader.readTag());
+        reader.skip(reader.readTag());
+        Assertions.assertEquals(5, ProtobufReader.fieldNumber(reader.readTag()));
+        Assertions.assertTrue(reader.readBool());
+        Assertions.assertEquals(6, ProtobufReader.fieldNumber(reader.readTag()));
+        ByteBuf bytes = reader.readBytes();
+        Assertions.assertEquals(3, bytes.readableBytes());
+        Assertions.assertEquals(3, bytes.getByte(2));
+        Assertions.assertEquals(7, ProtobufReader.fieldNumber(reader.readTag()));
+        Assertions.assertEquals(-1L, reader.readVarint());
+        Assertions.assertEquals(8, ProtobufReader.fieldNumber(reader.readTag()));
+        Assertions.assertEquals(Long.MAX_VALUE, reader.readVarint());
+        Assertions.assertFalse(reader.isReadable());
+    }
+
+    @Test
+    void rejectsTruncatedVarint() {
+        ProtobufReader reader = new ProtobufReader(Unpooled.wrappedBuffer(new byte[]{(byte) 0x80, (byte) 0x80}));
+        Assertions.assertThrows(IllegalArgumentException.class, reader::readVarint);
+    }
+
+    @Test
+    void rejectsVarintLongerThanTenBytes() {
+        byte[] data = new byte[11];
+        Arrays.fill(data, (byte) 0xff);
+        ProtobufReader reader = new ProtobufReader(Unpooled.wrappedBuffer(data));
+        Assertions.assertThrows(IllegalArgumentException.class, reader::readVarint);
+    }
+
+    @Test
+    void rejectsLengthBeyondBuffer() {
+        ProtobufReader reader = new ProtobufReader(Unpooled.wrappedBuffer(new byte[]{0x12, 0x05, 'a', 'b'}));
+        reader.readTag();
+        Assertions.assertThrows(IllegalArgumentException.class, reader::readBytes);
+    }
+
+    @Test
+    void rejectsNegativeLength() {
+        byte[] data = {(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff,
+                (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x01};
+        ProtobufReader reader = new ProtobufReader(Unpooled.wrappedBuffer(data));
+        Assertions.assertThrows(IllegalArgumentException.class, reader::readBytes);
+    }
+
+    @Test
+    void rejectsTruncatedFixedFields() {
+        ProtobufReader fixed64 = new ProtobufReader(Unpooled.wrappedBuffer(new byte[]{0x19, 1, 2, 3}));
+        int tag64 = fixed64.readTag();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fixed64.skip(tag64));
+        ProtobufReader fixed32 = new ProtobufReader(Unpooled.wrappedBuffer(new byte[]{0x1d, 1, 2}));
+        int tag32 = fixed32.readTag();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fixed32.skip(tag32));
+    }
+
+    @Test
+    void rejectsGroupWireType() {
+        ProtobufReader reader = new ProtobufReader(Unpooled.wrappedBuffer(new byte[]{0x0b}));
+        int tag = reader.readTag();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> reader.skip(tag));
+    }
+
+}
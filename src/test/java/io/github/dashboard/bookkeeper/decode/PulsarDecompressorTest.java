@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.decode;
+
+import io.airlift.compress.Compressor;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.snappy.SnappyCompressor;
+import io.airlift.compress.zstd.ZstdCompressor;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+
+class PulsarDecompressorTest {
+
+    private static final byte[] DATA = data();
+
+    @Test
+    void returnsUncompressedPayloadAsIs() throws DataFormatException {
+        ByteBuf payload = Unpooled.wrappedBuffer(DATA);
+        Assertions.assertSame(payload, PulsarDecompressor.decompress(payload, "NONE", DATA.length));
+    }
+
+    @Test
+    void decompressesLz4() throws DataFormatException {
+        assertRoundTrip("LZ4", compress(new Lz4Compressor(), DATA));
+    }
+
+    @Test
+    void decompressesZstd() throws DataFormatException {
+        assertRoundTrip("ZSTD", compress(new ZstdCompressor(), DATA));
+    }
+
+    @Test
+    void decompressesSnappy() throws DataFormatException {
+        assertRoundTrip("SNAPPY", compress(new SnappyCompressor(), DATA));
+    }
+
+    @Test
+    void decompressesZlib() throws DataFormatException {
+        assertRoundTrip("ZLIB", deflate(DATA));
+    }
+
+    @Test
+    void leavesPayloadReaderIndexAlone() throws DataFormatException {
+        ByteBuf payload = Unpooled.wrappedBuffer(compress(new Lz4Compressor(), DATA));
+        PulsarDecompressor.decompress(payload, "LZ4", DATA.length);
+        Assertions.assertEquals(0, payload.readerIndex());
+    }
+
+    @Test
+    void rejectsWrongUncompressedSize() {
+        for (String compression : new String[]{"LZ4", "ZSTD", "SNAPPY", "ZLIB"}) {
+            ByteBuf payload = Unpooled.wrappedBuffer(compressed(compression));
+            Assertions.assertThrows(DataFormatException.class,
+                    () -> PulsarDecompressor.decompress(payload, compression, DATA.length + 1));
+            Assertions.assertThrows(DataFormatException.class,
+                    () -> PulsarDecompressor.decompress(payload, compression, DATA.length - 1));
+            Assertions.assertThrows(DataFormatException.class,
+                    () -> PulsarDecompressor.decompress(payload, compression, -1));
+        }
+    }
+
+    @Test
+    void rejectsTruncatedPayload() {
+        for (String compression : new String[]{"LZ4", "ZSTD", "SNAPPY", "ZLIB"}) {
+            byte[] compressed = compressed(compression);
+            ByteBuf payload = Unpooled.wrappedBuffer(Arrays.copyOf(compressed, compressed.length / 2));
+            Assertions.assertThrows(DataFormatException.class,
+                    () -> PulsarDecompressor.decompress(payload, compression, DATA.length));
+        }
+    }
+
+    @Test
+    void rejectsGarbage() {
+        byte[] garbage = "definitely not compressed".getBytes(StandardCharsets.UTF_8);
+        for (String compression : new String[]{"LZ4", "ZSTD", "SNAPPY", "ZLIB"}) {
+            Assertions.assertThrows(DataFormatException.class,
+                    () -> PulsarDecompressor.decompress(Unpooled.wrappedBuffer(garbage), compression, 100));
+        }
+    }
+
+    @Test
+    void rejectsUnknownCompression() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> PulsarDecompressor.decompress(Unpooled.wrappedBuffer(DATA), "BROTLI", DATA.length));
+    }
+
+    private static void assertRoundTrip(String compression, byte[] compressed) throws DataFormatException {
+        ByteBuf uncompressed = PulsarDecompressor.decompress(Unpooled.wrappedBuffer(compressed), compression,
+                DATA.length);
+        Assertions.assertArrayEquals(DATA, ByteBufUtil.getBytes(uncompressed));
+    }
+
+    private static byte[] compressed(String compression) {
+        switch (compression) {
+            case "LZ4":
+                return compress(new Lz4Compressor(), DATA);
+            case "ZSTD":
+                return compress(new ZstdCompressor(), DATA);
+            case "SNAPPY":
+                return compress(new SnappyCompressor(), DATA);
+            default:
+                return deflate(DATA);
+        }
+    }
+
+    private static byte[] compress(Compressor compressor, byte[] input) {
+        byte[] output = new byte[compressor.maxCompressedLength(input.length)];
+        int length = compressor.compress(input, 0, input.length, output, 0, output.length);
+        return Arrays.copyOf(output, length);
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(input);
+        deflater.finish();
+        byte[] output = new byte[input.length + 64];
+        int length = deflater.deflate(output);
+        deflater.end();
+        return Arrays.copyOf(output, length);
+    }
+
+    /**
+     * Repetitive text with some random bytes, so every codec actually has to match and copy.
+     */
+    private static byte[] data() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            builder.append("{\"id\":").append(i).append(",\"topic\":\"persistent://public/default/t\"}");
+        }
+        byte[] text = builder.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] data = Arrays.copyOf(text, text.length + 256);
+        byte[] random = new byte[256];
+        new Random(1).nextBytes(random);
+        System.arraycopy(random, 0, data, text.length, random.length);
+        return data;
+    }
+
+}
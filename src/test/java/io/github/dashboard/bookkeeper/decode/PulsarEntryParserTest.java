@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.decode;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import io.github.dashboard.bookkeeper.module.PulsarDataEntry;
+import io.github.dashboard.bookkeeper.module.PulsarMessageMetadata;
+import io.github.dashboard.bookkeeper.module.PulsarSingleMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+class PulsarEntryParserTest {
+
+    @Test
+    void parsesMessageMetadata() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CodedOutputStream output = CodedOutputStream.newInstance(out);
+        output.writeString(1, "producer");
+        output.writeUInt64(2, 7);
+        output.writeUInt64(3, 1672531200000L);
+        output.writeBytes(4, keyValue("k", "v"));
+        output.writeEnum(8, 1);
+        output.writeUInt32(9, 100);
+        output.writeInt32(11, 2);
+        output.writeUInt64(99, 1);
+        output.writeString(26, "uuid");
+        output.flush();
+
+        PulsarMessageMetadata metadata = PulsarEntryParser.parseMessageMetadata(
+                Unpooled.wrappedBuffer(out.toByteArray()));
+        Assertions.assertEquals("producer", metadata.getProducerName());
+        Assertions.assertEquals(7L, metadata.getSequenceId());
+        Assertions.assertEquals(1672531200000L, metadata.getPublishTime());
+        Assertions.assertEquals(Map.of("k", "v"), metadata.getProperties());
+        Assertions.assertEquals("LZ4", metadata.getCompression());
+        Assertions.assertEquals(100, metadata.getUncompressedSize());
+        Assertions.assertEquals(2, metadata.getNumMessagesInBatch());
+        Assertions.assertEquals("uuid", metadata.getUuid());
+        Assertions.assertTrue(PulsarEntryParser.isBatch(metadata));
+    }
+
+    @Test
+    void defaultsToNoCompression() {
+        PulsarMessageMetadata metadata = PulsarEntryParser.parseMessageMetadata(Unpooled.EMPTY_BUFFER);
+        Assertions.assertEquals(PulsarEntryParser.COMPRESSION_NONE, metadata.getCompression());
+        Assertions.assertFalse(PulsarEntryParser.isBatch(metadata));
+    }
+
+    @Test
+    void parsesEntryWithoutOptionalHeaders() throws IOException {
+        ByteBuf data = Unpooled.buffer();
+        writeSized(data, producerMetadata());
+        data.writeBytes("payload".getBytes(StandardCharsets.UTF_8));
+        int readerIndex = data.readerIndex();
+
+        PulsarDataEntry entry = new PulsarDataEntry();
+        ByteBuf payload = PulsarEntryParser.parseHeaders(data, entry);
+        Assertions.assertEquals("payload", payload.toString(StandardCharsets.UTF_8));
+        Assertions.assertEquals(7, entry.getPayloadSize());
+        Assertions.assertEquals("producer", entry.getMetadata().getProducerName());
+        Assertions.assertNull(entry.getChecksum());
+        Assertions.assertNull(entry.getBrokerTimestamp());
+        Assertions.assertEquals(readerIndex, data.readerIndex());
+    }
+
+    @Test
+    void parsesBrokerEntryMetadataAndChecksum() throws IOException {
+        ByteBuf data = entryWithHeaders();
+        PulsarDataEntry entry = new PulsarDataEntry();
+        ByteBuf payload = PulsarEntryParser.parseHeaders(data, entry);
+        Assertions.assertEquals("payload", payload.toString(StandardCharsets.UTF_8));
+        Assertions.assertEquals(1672531200000L, entry.getBrokerTimestamp());
+        Assertions.assertEquals(42L, entry.getBrokerIndex());
+        Assertions.assertEquals(Boolean.TRUE, entry.getChecksumValid());
+    }
+
+    @Test
+    void detectsChecksumMismatch() throws IOException {
+        ByteBuf data = entryWithHeaders();
+        int last = data.writerIndex() - 1;
+        data.setByte(last, data.getByte(last) ^ 1);
+        PulsarDataEntry entry = new PulsarDataEntry();
+        PulsarEntryParser.parseHeaders(data, entry);
+        Assertions.assertEquals(Boolean.FALSE, entry.getChecksumValid());
+    }
+
+    @Test
+    void splitsBatchPayload() throws IOException {
+        ByteBuf payload = Unpooled.buffer();
+        for (String value : new String[]{"first", "second"}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            CodedOutputStream output = CodedOutputStream.newInstance(out);
+            output.writeBytes(1, keyValue("name", value));
+            output.writeInt32(3, value.length());
+            output.writeUInt64(8, value.length());
+            output.flush();
+            writeSized(payload, out.toByteArray());
+            payload.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<PulsarSingleMessage> messages = PulsarEntryParser.parseBatch(payload, 2);
+        Assertions.assertEquals(2, messages.size());
+        Assertions.assertEquals("first", messages.get(0).getPayload());
+        Assertions.assertEquals(Map.of("name", "second"), messages.get(1).getProperties());
+        Assertions.assertEquals(6L, messages.get(1).getSequenceId());
+        Assertions.assertEquals(0, payload.readerIndex());
+
+        List<PulsarSingleMessage> metadataOnly = PulsarEntryParser.parseBatch(payload, 2, false);
+        Assertions.assertNull(metadataOnly.get(0).getPayload());
+        Assertions.assertEquals(5, metadataOnly.get(0).getPayloadSize());
+    }
+
+    @Test
+    void rejectsTruncatedEntries() throws IOException {
+        byte[] entry = new byte[entryWithHeaders().readableBytes()];
+        entryWithHeaders().readBytes(entry);
+        int payloadStart = entry.length - "payload".length();
+        for (int length = 0; length < payloadStart; length++) {
+            ByteBuf truncated = Unpooled.wrappedBuffer(entry, 0, length);
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> PulsarEntryParser.parseHeaders(truncated, new PulsarDataEntry()));
+        }
+    }
+
+    @Test
+    void rejectsBatchMessageLongerThanPayload() {
+        ByteBuf payload = Unpooled.buffer();
+        payload.writeInt(2);
+        payload.writeByte(0x18);
+        payload.writeByte(100);
+        payload.writeBytes(new byte[10]);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PulsarEntryParser.parseBatch(payload, 1));
+    }
+
+    private static ByteBuf entryWithHeaders() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CodedOutputStream output = CodedOutputStream.newInstance(out);
+        output.writeUInt64(1, 1672531200000L);
+        output.writeUInt64(2, 42);
+        output.flush();
+
+        ByteBuf checked = Unpooled.buffer();
+        writeSized(checked, producerMetadata());
+        checked.writeBytes("payload".getBytes(StandardCharsets.UTF_8));
+        CRC32C crc = new CRC32C();
+        crc.update(checked.nioBuffer());
+
+        ByteBuf data = Unpooled.buffer();
+        data.writeShort(0x0e02);
+        writeSized(data, out.toByteArray());
+        data.writeShort(0x0e01);
+        data.writeInt((int) crc.getValue());
+        data.writeBytes(checked);
+        return data;
+    }
+
+    private static byte[] producerMetadata() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CodedOutputStream output = CodedOutputStream.newInstance(out);
+        output.writeString(1, "producer");
+        output.writeUInt64(2, 1);
+        output.writeUInt64(3, 1672531200000L);
+        output.flush();
+        return out.toByteArray();
+    }
+
+    private static ByteString keyValue(String key, String value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CodedOutputStream output = CodedOutputStream.newInstance(out);
+        output.writeString(1, key);
+        output.writeString(2, value);
+        output.flush();
+        return ByteString.copyFrom(out.toByteArray());
+    }
+
+    private static void writeSized(ByteBuf dst, byte[] bytes) {
+        dst.writeInt(bytes.length);
+        dst.writeBytes(bytes);
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.search;
+
+import io.github.dashboard.bookkeeper.module.SearchEvent;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+class BytesMatcherTest {
+
+    @Test
+    void findsMatchAtStart() {
+        assertIndexOf(0, "abc", "abcdef");
+    }
+
+    @Test
+    void findsMatchAtEnd() {
+        assertIndexOf(3, "def", "abcdef");
+        assertIndexOf(5, "f", "abcdef");
+    }
+
+    @Test
+    void findsWholeBuffer() {
+        assertIndexOf(0, "abcdef", "abcdef");
+    }
+
+    @Test
+    void findsFirstOfSeveralMatches() {
+        assertIndexOf(1, "ab", "xabyabz");
+    }
+
+    @Test
+    void missesPatternLongerThanEntry() {
+        assertIndexOf(-1, "abcdefg", "abcdef");
+        assertIndexOf(-1, "a", "");
+    }
+
+    @Test
+    void missesAbsentPattern() {
+        assertIndexOf(-1, "abd", "abcabcabc");
+        assertIndexOf(-1, "fa", "abcdef");
+    }
+
+    @Test
+    void findsRepeatedPrefixPatterns() {
+        assertIndexOf(3, "aaab", "aaaaaab");
+        assertIndexOf(2, "abab", "aaababab");
+        assertIndexOf(4, "abcabd", "abcaabcabdabcabd");
+        assertIndexOf(-1, "aaab", "aaaaaaa");
+    }
+
+    @Test
+    void findsNonAsciiBytes() {
+        BytesMatcher matcher = new BytesMatcher(new byte[]{(byte) 0xff, 0x00, (byte) 0x80});
+        ByteBuf data = Unpooled.wrappedBuffer(new byte[]{0x00, (byte) 0xff, (byte) 0xff, 0x00, (byte) 0x80});
+        Assertions.assertEquals(2, matcher.indexOf(data));
+    }
+
+    @Test
+    void searchesSliceFromReaderIndex() {
+        BytesMatcher matcher = matcher("abc");
+        ByteBuf slice = Unpooled.wrappedBuffer(ascii("abcxxabcyy")).slice(1, 8);
+        Assertions.assertEquals(4, matcher.indexOf(slice));
+        ByteBuf skipped = Unpooled.wrappedBuffer(ascii("abcxxabcyy")).skipBytes(3);
+        Assertions.assertEquals(2, matcher.indexOf(skipped));
+        ByteBuf truncated = Unpooled.wrappedBuffer(ascii("xxabcyy")).slice(0, 4);
+        Assertions.assertEquals(-1, matcher.indexOf(truncated));
+    }
+
+    @Test
+    void searchesDirectBufferFromReaderIndex() {
+        ByteBuf direct = Unpooled.directBuffer().writeBytes(ascii("abcxxabcyy")).skipBytes(1);
+        Assertions.assertEquals(4, matcher("abc").indexOf(direct));
+    }
+
+    @Test
+    void searchesAcrossCompositeComponents() {
+        CompositeByteBuf composite = Unpooled.compositeBuffer();
+        composite.addComponent(true, Unpooled.wrappedBuffer(ascii("-xxab")));
+        composite.addComponent(true, Unpooled.directBuffer().writeBytes(ascii("cdyy")));
+        composite.skipBytes(1);
+        Assertions.assertEquals(2, matcher("abcd").indexOf(composite));
+        Assertions.assertEquals(-1, matcher("-x").indexOf(composite));
+    }
+
+    @Test
+    void reportsHitWithPreview() {
+        ByteBuf data = Unpooled.wrappedBuffer(ascii("-xxabcd")).skipBytes(1);
+        SearchEvent hit = matcher("abc").match(7, data);
+        Assertions.assertNotNull(hit);
+        Assertions.assertEquals(SearchEvent.HIT, hit.getType());
+        Assertions.assertEquals(7L, hit.getEntryId());
+        Assertions.assertEquals(2, hit.getOffset());
+        Assertions.assertEquals("61626364", hit.getPreview());
+        Assertions.assertNull(matcher("abcde").match(7, data));
+    }
+
+    @Test
+    void rejectsEmptyPattern() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BytesMatcher(new byte[0]));
+    }
+
+    private static void assertIndexOf(int expected, String pattern, String data) {
+        Assertions.assertEquals(expected, matcher(pattern).indexOf(Unpooled.wrappedBuffer(ascii(data))));
+        ByteBuf direct = Unpooled.directBuffer().writeBytes(ascii(data));
+        Assertions.assertEquals(expected, matcher(pattern).indexOf(direct));
+    }
+
+    private static BytesMatcher matcher(String pattern) {
+        return new BytesMatcher(ascii(pattern));
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+}
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.util;
+
+import io.github.dashboard.bookkeeper.module.ExportCompression;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+class ExportFileUtilTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsEverySegmentCompression() throws IOException {
+        for (ExportCompression compression : ExportCompression.values()) {
+            Path file = dir.resolve("ledger-" + compression);
+            writeSegments(file, compression, 0, 100, 50);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                Assertions.assertEquals(compression, ExportFileUtil.detect(channel));
+                Assertions.assertEquals(150, readPayloads(channel, compression).size());
+            }
+        }
+    }
+
+    @Test
+    void keepsPayloadsInOrder() throws IOException {
+        Path file = dir.resolve("ledger");
+        writeSegments(file, ExportCompression.Zstd, 0, 3, 2);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<String> payloads = readPayloads(channel, ExportCompression.Zstd);
+            Assertions.assertEquals(List.of("entry-0", "entry-1", "entry-2", "entry-3", "entry-4"), payloads);
+        }
+    }
+
+    @Test
+    void gzipFileIsPlainGzip() throws IOException {
+        Path file = dir.resolve("ledger.gz");
+        writeSegments(file, ExportCompression.Gzip, 0, 2, 1);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            DataInputStream frames = new DataInputStream(in);
+            for (int i = 0; i < 3; i++) {
+                Assertions.assertEquals(i, frames.readLong());
+                frames.skipNBytes(frames.readInt());
+            }
+            Assertions.assertEquals(-1, frames.read());
+        }
+    }
+
+    @Test
+    void fileCutAfterSegmentIsValid() throws IOException {
+        for (ExportCompression compression : ExportCompression.values()) {
+            Path file = dir.resolve("ledger-" + compression);
+            long firstSegment = writeSegments(file, compression, 0, 10);
+            writeSegments(file, compression, 10, 10);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(firstSegment);
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                Assertions.assertEquals(10, readPayloads(channel, compression).size());
+            }
+        }
+    }
+
+    @Test
+    void rejectsFileCutInsideSegment() throws IOException {
+        for (ExportCompression compression : ExportCompression.values()) {
+            Path file = dir.resolve("ledger-" + compression);
+            long size = writeSegments(file, compression, 0, 10);
+            for (long length : new long[]{size - 1, size / 2 + 1, 3}) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(length);
+                }
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    Assertions.assertThrows(IOException.class, () -> readPayloads(channel, compression));
+                }
+            }
+        }
+    }
+
+    @Test
+    void readsEmptyFile() throws IOException {
+        Path file = Files.createFile(dir.resolve("empty"));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Assertions.assertEquals(ExportCompression.None, ExportFileUtil.detect(channel));
+            Assertions.assertNull(ExportFileUtil.readFramePayload(
+                    ExportFileUtil.openFrames(channel, ExportCompression.None)));
+        }
+    }
+
+    @Test
+    void rejectsNegativeFrameLength() throws IOException {
+        Path file = dir.resolve("ledger");
+        Files.write(file, ByteBuffer.allocate(EntryFrameUtil.HEADER_SIZE).putLong(0).putInt(-1).array());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            DataInputStream in = ExportFileUtil.openFrames(channel, ExportCompression.None);
+            Assertions.assertThrows(IOException.class, () -> ExportFileUtil.readFramePayload(in));
+        }
+    }
+
+    @Test
+    void rejectsMalformedZstdSegments() throws IOException {
+        Path file = dir.resolve("ledger");
+        long size = writeSegments(file, ExportCompression.Zstd, 0, 10);
+        byte[] valid = Files.readAllBytes(file);
+
+        byte[] badMagic = valid.clone();
+        badMagic[0] ^= 1;
+        assertZstdRejected(file, badMagic);
+
+        byte[] negativeSize = valid.clone();
+        ByteBuffer.wrap(negativeSize).order(ByteOrder.LITTLE_ENDIAN).putInt(12, -1);
+        assertZstdRejected(file, negativeSize);
+
+        byte[] wrongSize = valid.clone();
+        ByteBuffer header = ByteBuffer.wrap(wrongSize).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(12, header.getInt(12) - 1);
+        assertZstdRejected(file, wrongSize);
+
+        byte[] corrupt = valid.clone();
+        for (int i = 20; i < size; i++) {
+            corrupt[i] = (byte) 0xff;
+        }
+        assertZstdRejected(file, corrupt);
+    }
+
+    private void assertZstdRejected(Path file, byte[] content) throws IOException {
+        Files.write(file, content);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Assertions.assertThrows(IOException.class, () -> readPayloads(channel, ExportCompression.Zstd));
+        }
+    }
+
+    /**
+     * Appends one segment per count of consecutive entries, returns the file size.
+     */
+    private static long writeSegments(Path file, ExportCompression compression, long firstEntry, int... counts)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            long entryId = firstEntry;
+            for (int count : counts) {
+                ByteBuf frames = Unpooled.buffer();
+                for (int i = 0; i < count; i++, entryId++) {
+                    ByteBuf payload = Unpooled.copiedBuffer("entry-" + entryId, StandardCharsets.UTF_8);
+                    EntryFrameUtil.writeFrame(frames, entryId, payload);
+                }
+                ExportFileUtil.writeSegment(channel, compression, frames);
+            }
+            return channel.size();
+        }
+    }
+
+    private static List<String> readPayloads(FileChannel channel, ExportCompression compression)
+            throws IOException {
+        channel.position(0);
+        DataInputStream in = ExportFileUtil.openFrames(channel, compression);
+        List<String> payloads = new ArrayList<>();
+        byte[] payload;
+        while ((payload = ExportFileUtil.readFramePayload(in)) != null) {
+            payloads.add(new String(payload, StandardCharsets.UTF_8));
+        }
+        return payloads;
+    }
+
+}
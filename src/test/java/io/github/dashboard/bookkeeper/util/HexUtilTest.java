@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.github.dashboard.bookkeeper.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+class HexUtilTest {
+
+    private static final byte[] ALL_BYTES = allBytes();
+
+    @Test
+    void roundTripsEveryByte() {
+        String hex = HexUtil.bytes2hex(ALL_BYTES);
+        Assertions.assertEquals(512, hex.length());
+        Assertions.assertEquals("00010203", hex.substring(0, 8));
+        Assertions.assertEquals("fcfdfeff", hex.substring(504));
+        Assertions.assertArrayEquals(ALL_BYTES, HexUtil.hexToByteArray(hex));
+        Assertions.assertArrayEquals(ALL_BYTES, HexUtil.hexToByteArray(hex.toUpperCase(Locale.ROOT)));
+    }
+
+    @Test
+    void encodesReadableBytesOfHeapAndDirectBuffers() {
+        ByteBuf heap = Unpooled.wrappedBuffer(ALL_BYTES).skipBytes(1);
+        ByteBuf direct = Unpooled.directBuffer().writeBytes(ALL_BYTES).skipBytes(1);
+        String expected = HexUtil.bytes2hex(ALL_BYTES).substring(2);
+        Assertions.assertEquals(expected, HexUtil.bytes2hex(heap));
+        Assertions.assertEquals(expected, HexUtil.bytes2hex(direct));
+        Assertions.assertEquals(1, heap.readerIndex());
+        Assertions.assertEquals(1, direct.readerIndex());
+    }
+
+    @Test
+    void appendsHexToBuffer() {
+        ByteBuf heap = Unpooled.buffer().writeByte('>');
+        ByteBuf direct = Unpooled.directBuffer().writeByte('>');
+        HexUtil.encode(Unpooled.wrappedBuffer(new byte[]{0x01, (byte) 0xab}), heap);
+        HexUtil.encode(Unpooled.directBuffer().writeBytes(new byte[]{0x01, (byte) 0xab}), direct);
+        Assertions.assertEquals(">01ab", heap.toString(StandardCharsets.US_ASCII));
+        Assertions.assertEquals(">01ab", direct.toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void readsOddLengthAsLeadingZero() {
+        Assertions.assertArrayEquals(new byte[]{0x0a, (byte) 0xbc}, HexUtil.hexToByteArray("abc"));
+        Assertions.assertArrayEquals(new byte[]{0x0f}, HexUtil.hexToByteArray("f"));
+        Assertions.assertArrayEquals(new byte[0], HexUtil.hexToByteArray(""));
+    }
+
+    @Test
+    void rejectsNonHexCharacters() {
+        IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> HexUtil.hexToByteArray("0g"));
+        Assertions.assertEquals("invalid hex character 'g' at index 1", e.getMessage());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HexUtil.hexToByteArray("0x"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HexUtil.hexToByteArray("\u00e9a"));
+    }
+
+    @Test
+    void dumpsFullAndPartialLines() {
+        ByteBuf src = Unpooled.buffer().writeByte('-')
+                .writeBytes("0123456789abcdef".getBytes(StandardCharsets.US_ASCII))
+                .writeBytes(new byte[]{0x58, 0x00, 0x7f})
+                .skipBytes(1);
+        ByteBuf dst = Unpooled.buffer();
+        HexUtil.dump(src, 0x10, dst);
+        Assertions.assertEquals(""
+                + "00000010  30 31 32 33 34 35 36 37  38 39 61 62 63 64 65 66  |0123456789abcdef|\n"
+                + "00000020  58 00 7f                                          |X..|\n",
+                dst.toString(StandardCharsets.US_ASCII));
+        Assertions.assertEquals(1, src.readerIndex());
+        Assertions.assertTrue(dst.readableBytes() <= HexUtil.dumpLength(19));
+    }
+
+    @Test
+    void dumpsNothingForEmptyBuffer() {
+        ByteBuf dst = Unpooled.buffer();
+        HexUtil.dump(Unpooled.EMPTY_BUFFER, 0, dst);
+        Assertions.assertEquals(0, dst.readableBytes());
+        Assertions.assertEquals(0, HexUtil.dumpLength(0));
+    }
+
+    private static byte[] allBytes() {
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        return bytes;
+    }
+
+}